@@ -0,0 +1,40 @@
+package benchmark;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessBoardBenchmark {
+    private ChessBoard board;
+    private ChessBoard other;
+
+    @Setup
+    public void setUp() {
+        board = Positions.get("middlegame").getBoard();
+        other = Positions.get("middlegame").getBoard();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        ChessBoard fresh = new ChessBoard();
+        fresh.resetBoard();
+        return fresh;
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsBoard() {
+        return board.equals(other);
+    }
+}
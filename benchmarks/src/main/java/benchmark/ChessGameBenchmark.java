@@ -0,0 +1,111 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+    @Param({"start", "middlegame", "open"})
+    public String position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor turn;
+    private final List<ChessPosition> ownPieces = new ArrayList<>();
+    private ChessMove firstMove;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        game = Positions.get(position);
+        turn = game.getTeamTurn();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = ChessPosition.of(row, col);
+                ChessPiece piece = game.getBoard().getPiece(square);
+                if (piece != null && piece.getTeamColor() == turn) {
+                    ownPieces.add(square);
+                    if (firstMove == null && !game.validMoves(square).isEmpty()) {
+                        firstMove = game.validMoves(square).iterator().next();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * validMoves for every piece of the side to move, as a client highlighting
+     * moves or a server validating them would call it
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public int legalMovesPacked() {
+        moves.clear();
+        game.legalMoves(turn, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public void makeMove() throws InvalidMoveException {
+        game.makeMove(firstMove);
+        game.getBoard().undoMove();
+        game.setTeamTurn(turn);
+    }
+
+    /**
+     * A private copy, as analysis and bots take; compare with the Gson round
+     * trip in SerializationBenchmark
+     */
+    @Benchmark
+    public ChessGame forkGame() {
+        return game.fork();
+    }
+
+    /**
+     * Trying a move on a copy, leaving the game untouched
+     */
+    @Benchmark
+    public ChessGame.GameStatus speculativeMove() throws InvalidMoveException {
+        ChessGame copy = game.fork();
+        copy.makeMove(firstMove);
+        return copy.getStatus();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(turn);
+    }
+
+    /**
+     * The full status computation, bypassing the cached result
+     */
+    @Benchmark
+    public boolean statusUncached() {
+        return game.isInCheck(turn) || MoveGenerator.hasLegalMove(game.getBoard(), turn);
+    }
+}
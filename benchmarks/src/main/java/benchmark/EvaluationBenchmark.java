@@ -0,0 +1,75 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveList;
+import chess.engine.Evaluator;
+import chess.engine.NnueEvaluator;
+import chess.engine.PieceSquareEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluations per second. {@code evaluate} reads the evaluator's running
+ * state; {@code moveAndEvaluate} also pays for the incremental updates of a
+ * make and unmake, as a search does at every node. {@code rebuild} is the
+ * full recomputation the incremental updates avoid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    @Param({"middlegame", "open"})
+    public String position;
+
+    @Param({"pst", "nnue128", "nnue256"})
+    public String evaluator;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor turn;
+    private Evaluator evaluation;
+    private int[] moves;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ChessGame game = Positions.get(position);
+        board = game.getBoard();
+        turn = game.getTeamTurn();
+        evaluation = switch (evaluator) {
+            case "pst" -> new PieceSquareEvaluator();
+            case "nnue128" -> new NnueEvaluator(NnueEvaluator.Network.random(128, 1));
+            case "nnue256" -> new NnueEvaluator(NnueEvaluator.Network.random(256, 1));
+            default -> throw new IllegalArgumentException("Unknown evaluator: " + evaluator);
+        };
+        evaluation.reset(board);
+        board.setPieceListener(evaluation);
+        MoveList legal = new MoveList();
+        game.legalMoves(turn, legal);
+        moves = legal.toArray();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return evaluation.evaluate(turn);
+    }
+
+    @Benchmark
+    public int moveAndEvaluate() {
+        board.doMove(moves[next]);
+        int score = evaluation.evaluate(ChessGame.opponent(turn));
+        board.undoMove();
+        next = next + 1 == moves.length ? 0 : next + 1;
+        return score;
+    }
+
+    @Benchmark
+    public int rebuild() {
+        evaluation.reset(board);
+        return evaluation.evaluate(turn);
+    }
+}
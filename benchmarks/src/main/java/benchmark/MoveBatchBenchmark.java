@@ -0,0 +1,87 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves per second through {@link MoveBatch}, against making the same moves
+ * one at a time with {@link ChessGame#makeMove}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBatchBenchmark {
+    private static final int MOVES = 100_000;
+    private static final int GAMES = 1_000;
+    private static final int LINE_PLIES = 100;
+
+    private final MoveBatch batch = MoveBatch.common();
+    private final List<ChessGame> games = new ArrayList<>();
+    private final List<ChessMove> moves = new ArrayList<>();
+    private final List<ChessGame> starts = new ArrayList<>();
+    private final List<List<ChessMove>> lines = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        Random random = new Random(1);
+        MoveList legal = new MoveList();
+        for (int g = 0; g < GAMES || games.size() < MOVES; g++) {
+            ChessGame game = new ChessGame();
+            List<ChessMove> line = new ArrayList<>();
+            for (int ply = 0; ply < LINE_PLIES; ply++) {
+                legal.clear();
+                game.legalMoves(game.getTeamTurn(), legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                ChessMove move = PackedMove.toChessMove(legal.get(random.nextInt(legal.size())));
+                if (games.size() < MOVES) {
+                    games.add(game.fork());
+                    moves.add(move);
+                }
+                line.add(move);
+                game.makeMove(move);
+            }
+            if (g < GAMES) {
+                starts.add(new ChessGame());
+                lines.add(line);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public List<MoveBatch.Result> applyBatch() {
+        return batch.apply(games, moves);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int applyOneByOne() {
+        int applied = 0;
+        for (int i = 0; i < games.size(); i++) {
+            ChessGame game = games.get(i).fork();
+            try {
+                game.makeMove(moves.get(i));
+                applied++;
+            } catch (InvalidMoveException e) {
+                // counted as not applied
+            }
+        }
+        return applied;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES * LINE_PLIES)
+    public int[] replayGames() {
+        return batch.replay(starts, lines);
+    }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.engine.BookBuilder;
+import chess.engine.OpeningBook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to look up a position in a memory-mapped opening book of random
+ * games. {@code hit} looks up positions the book has, {@code miss} one it
+ * does not; both are a binary search of the mapped file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpeningBookBenchmark {
+    @Param({"1000", "100000"})
+    public int games;
+
+    private Path file;
+    private OpeningBook book;
+    private ChessGame[] positions;
+    private ChessGame missing;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException, InvalidMoveException {
+        Random random = new Random(1);
+        BookBuilder builder = new BookBuilder(16);
+        List<ChessGame> sampled = new ArrayList<>();
+        MoveList legal = new MoveList();
+        for (int i = 0; i < games; i++) {
+            ChessGame game = new ChessGame();
+            List<ChessMove> moves = new ArrayList<>();
+            for (int ply = 0; ply < 16; ply++) {
+                legal.clear();
+                game.legalMoves(game.getTeamTurn(), legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                ChessMove move = PackedMove.toChessMove(legal.get(random.nextInt(legal.size())));
+                moves.add(move);
+                game.makeMove(move);
+                if (ply == 7 && sampled.size() < 64) {
+                    sampled.add(game.fork());
+                }
+            }
+            builder.addGame(moves);
+        }
+        file = Files.createTempFile("book", ".bin");
+        builder.write(file);
+        book = OpeningBook.open(file);
+        positions = sampled.toArray(new ChessGame[0]);
+        missing = Positions.get("middlegame");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int hit() {
+        ChessGame game = positions[next];
+        next = next + 1 == positions.length ? 0 : next + 1;
+        return book.moves(game).size();
+    }
+
+    @Benchmark
+    public int miss() {
+        return book.moves(missing).size();
+    }
+}
@@ -0,0 +1,34 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+    @Param({"start", "middlegame"})
+    public String position;
+
+    @Param({"4"})
+    public int depth;
+
+    private final Perft perft = new Perft();
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = Positions.get(position);
+    }
+
+    @Benchmark
+    public long perft() {
+        return perft.count(game, depth);
+    }
+}
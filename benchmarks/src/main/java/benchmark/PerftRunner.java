@@ -0,0 +1,42 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Perft;
+
+import java.util.Arrays;
+
+/**
+ * Runs perft on every named position and reports leaf counts and nodes per
+ * second.
+ * <p>
+ * Usage: {@code PerftRunner [depth] [position...]}, depth defaults to 5.
+ */
+public class PerftRunner {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String[] names = args.length > 1
+                ? Arrays.copyOfRange(args, 1, args.length)
+                : Positions.LINES.keySet().toArray(new String[0]);
+
+        Perft perft = new Perft();
+        // let the JIT compile the generator before timing anything
+        for (String name : names) {
+            perft.count(Positions.get(name), Math.min(depth, 3));
+        }
+
+        long totalNodes = 0L;
+        long totalNanos = 0L;
+        for (String name : names) {
+            ChessGame game = Positions.get(name);
+            long start = System.nanoTime();
+            long nodes = perft.count(game, depth);
+            long elapsed = System.nanoTime() - start;
+            totalNodes += nodes;
+            totalNanos += elapsed;
+            System.out.printf("%-12s depth %d  %,14d nodes  %8.3f s  %,14.0f nps%n",
+                    name, depth, nodes, elapsed / 1e9, nodes / (elapsed / 1e9));
+        }
+        System.out.printf("%-12s          %,14d nodes  %8.3f s  %,14.0f nps%n",
+                "total", totalNodes, totalNanos / 1e9, totalNodes / (totalNanos / 1e9));
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named positions shared by the benchmarks and the perft driver. Positions
+ * are reached by playing moves in coordinate notation (e2e4) from the start.
+ */
+public final class Positions {
+    public static final Map<String, String[]> LINES = new LinkedHashMap<>();
+
+    static {
+        LINES.put("start", new String[]{});
+        LINES.put("italian", new String[]{
+                "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d3", "d7d6"});
+        LINES.put("middlegame", new String[]{
+                "d2d4", "d7d5", "c2c4", "e7e6", "b1c3", "g8f6", "c1g5", "f8e7", "e2e3", "b8d7",
+                "g1f3", "c7c6", "f1d3", "d5c4", "d3c4", "b7b5", "c4d3", "a7a6", "a2a4", "b5b4"});
+        LINES.put("open", new String[]{
+                "e2e4", "d7d5", "e4d5", "d8d5", "b1c3", "d5a5", "d2d4", "g8f6", "g1f3", "c8f5",
+                "f1c4", "e7e6", "d1e2", "f8b4", "c1d2", "b8c6"});
+    }
+
+    private Positions() {}
+
+    /**
+     * @return a new game at the named position
+     */
+    public static ChessGame get(String name) {
+        String[] line = LINES.get(name);
+        if (line == null) {
+            throw new IllegalArgumentException("Unknown position: " + name);
+        }
+        ChessGame game = new ChessGame();
+        for (String move : line) {
+            try {
+                game.makeMove(parse(move));
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Illegal move " + move + " in position " + name, e);
+            }
+        }
+        return game;
+    }
+
+    private static ChessMove parse(String move) {
+        return ChessMove.of(square(move, 0), square(move, 2), null);
+    }
+
+    private static ChessPosition square(String move, int offset) {
+        return ChessPosition.of(move.charAt(offset + 1) - '0', move.charAt(offset) - 'a' + 1);
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP scaling. {@code timeToDepth} is the wall-clock time to finish a
+ * fixed depth from an empty transposition table; {@code nodesPerSecond}
+ * reports the search speed summed over all threads as the {@code nodes}
+ * counter. Compare the scores across the {@code threads} parameter.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"middlegame", "open"})
+    public String position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"7"})
+    public int depth;
+
+    private Engine engine;
+    private ChessGame game;
+    private SearchLimits limits;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Setup
+    public void setUp() {
+        engine = new Engine(64, threads);
+        game = Positions.get(position);
+        limits = SearchLimits.depth(depth);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        engine.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SearchResult timeToDepth() {
+        return engine.bestMove(game, limits);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public SearchResult nodesPerSecond(Counters counters) {
+        SearchResult result = engine.bestMove(game, limits);
+        counters.nodes += result.nodes();
+        return result;
+    }
+}
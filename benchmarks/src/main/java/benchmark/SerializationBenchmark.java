@@ -0,0 +1,52 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Fen;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final Gson GSON = new Gson();
+
+    private ChessGame game;
+    private String json;
+    private String fen;
+    private final StringBuilder fenBuffer = new StringBuilder(100);
+
+    @Setup
+    public void setUp() {
+        game = Positions.get("middlegame");
+        json = GSON.toJson(game);
+        fen = game.toFen();
+    }
+
+    @Benchmark
+    public String gsonToJson() {
+        return GSON.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame gsonFromJson() {
+        return GSON.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public StringBuilder fenWrite() {
+        fenBuffer.setLength(0);
+        Fen.write(game, fenBuffer);
+        return fenBuffer;
+    }
+
+    @Benchmark
+    public ChessGame fenParse() {
+        return Fen.parseGame(fen);
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.engine.Tablebase;
+import chess.engine.TablebaseGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to probe the memory-mapped endgame tables, and to generate them.
+ * {@code probe} cycles through positions of each table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablebaseBenchmark {
+    private static final String[] POSITIONS = {
+            "8/8/8/4k3/8/8/8/R3K3 w - - 0 1",
+            "8/8/3k4/8/8/2Q5/8/6K1 b - - 0 1",
+            "4k3/8/4K3/4P3/8/8/8/8 w - - 0 1",
+            "8/8/8/8/4p3/4k3/8/4K3 b - - 0 1"
+    };
+
+    private Path directory;
+    private Tablebase tablebase;
+    private ChessBoard[] boards;
+    private ChessGame.TeamColor[] turns;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tablebase");
+        new TablebaseGenerator(ForkJoinPool.commonPool()).write(directory);
+        tablebase = Tablebase.open(directory);
+        boards = new ChessBoard[POSITIONS.length];
+        turns = new ChessGame.TeamColor[POSITIONS.length];
+        for (int i = 0; i < POSITIONS.length; i++) {
+            ChessGame game = ChessGame.fromFen(POSITIONS[i]);
+            boards[i] = game.getBoard();
+            turns[i] = game.getTeamTurn();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int probe() {
+        int i = next;
+        next = next + 1 == boards.length ? 0 : next + 1;
+        return tablebase.probe(boards[i], turns[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public byte[] generate() {
+        return new TablebaseGenerator(ForkJoinPool.commonPool()).generate(Tablebase.Endgame.KPK);
+    }
+}
@@ -188,7 +188,7 @@ public class InGameREPL {
             }
         }
 
-        ChessMove move = new ChessMove(from, to, promotionPiece);
+        ChessMove move = ChessMove.of(from, to, promotionPiece);
         communicator.makeMove(gameID, move);
     }
 
@@ -278,6 +278,6 @@ public class InGameREPL {
         int col = file - 'a' + 1;  // Convert 'a'-'h' to 1-8
         int row = rank - '0';      // Convert '1'-'8' to 1-8
 
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 }
\ No newline at end of file
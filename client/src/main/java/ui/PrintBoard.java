@@ -77,7 +77,7 @@ public class PrintBoard {
             System.out.print(" " + row + " ");
 
             for (int col = colStart; col != colEnd; col += colStep) {
-                ChessPosition position = new ChessPosition(row, col);
+                ChessPosition position = ChessPosition.of(row, col);
                 ChessPiece piece = board.getPiece(position);
                 String bg = bgColorFunction.apply(position);
 
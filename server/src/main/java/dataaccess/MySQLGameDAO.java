@@ -2,14 +2,21 @@ package dataaccess;
 
 import model.GameData;
 import chess.ChessGame;
+import chess.ChessGameCodec;
 import com.google.gson.Gson;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Stores games in MySQL. Game state is kept in the {@code game_data} column
+ * using {@link ChessGameCodec}; rows written before that column existed hold
+ * Gson JSON in {@code game_state} and are converted when the DAO starts.
+ */
 public class MySQLGameDAO implements GameDAO {
     private static final Gson GSON = new Gson();
 
@@ -21,11 +28,14 @@ public class MySQLGameDAO implements GameDAO {
                     "black_username VARCHAR(255) DEFAULT NULL, " +
                     "game_name VARCHAR(255) NOT NULL, " +
                     "game_state TEXT," +
+                    "game_data BLOB DEFAULT NULL," +
                     "PRIMARY KEY (game_id)" +
                     ")";
             try (PreparedStatement createPs = conn.prepareStatement(createSql)) {
                 createPs.executeUpdate();
             }
+            addGameDataColumn(conn);
+            migrateJsonRows(conn);
         } catch (SQLException | DataAccessException e) {
             throw new RuntimeException("Error initializing game table: " + e.getMessage());
         }
@@ -35,13 +45,13 @@ public class MySQLGameDAO implements GameDAO {
     public void createGame(GameData game) throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
             int nextId = generateNextGameId(conn);
-            String sql = "INSERT INTO game (game_id, white_username, black_username, game_name, game_state) VALUES (?, ?, ?, ?, ?)";
+            String sql = "INSERT INTO game (game_id, white_username, black_username, game_name, game_data) VALUES (?, ?, ?, ?, ?)";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setInt(1, nextId);
                 ps.setString(2, game.whiteUsername());
                 ps.setString(3, game.blackUsername());
                 ps.setString(4, game.gameName());
-                ps.setString(5, new Gson().toJson(game.game()));
+                ps.setBytes(5, encode(game.game()));
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -53,7 +63,7 @@ public class MySQLGameDAO implements GameDAO {
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT game_id, white_username, black_username, game_name, game_state FROM game WHERE game_id = ?";
+            String sql = "SELECT game_id, white_username, black_username, game_name, game_state, game_data FROM game WHERE game_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setInt(1, gameID);
                 try (ResultSet rs = ps.executeQuery()) {
@@ -62,8 +72,7 @@ public class MySQLGameDAO implements GameDAO {
                         String white = rs.getString("white_username");
                         String black = rs.getString("black_username");
                         String gameName = rs.getString("game_name");
-                        String gameState = rs.getString("game_state");
-                        ChessGame chessGame = GSON.fromJson(gameState, ChessGame.class);
+                        ChessGame chessGame = readGame(rs);
                         return new GameData(id, white, black, gameName, chessGame);
                     }
                 }
@@ -78,7 +87,7 @@ public class MySQLGameDAO implements GameDAO {
     public List<GameData> listGames() throws DataAccessException {
         List<GameData> games = new ArrayList<>();
         try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT game_id, white_username, black_username, game_name, game_state FROM game";
+            String sql = "SELECT game_id, white_username, black_username, game_name, game_state, game_data FROM game";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
@@ -86,8 +95,7 @@ public class MySQLGameDAO implements GameDAO {
                         String white = rs.getString("white_username");
                         String black = rs.getString("black_username");
                         String gameName = rs.getString("game_name");
-                        String gameState = rs.getString("game_state");
-                        ChessGame chessGame = GSON.fromJson(gameState, ChessGame.class);
+                        ChessGame chessGame = readGame(rs);
                         games.add(new GameData(id, white, black, gameName, chessGame));
                     }
                 }
@@ -101,12 +109,12 @@ public class MySQLGameDAO implements GameDAO {
     @Override
     public void updateGame(GameData game) throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE game SET white_username = ?, black_username = ?, game_name = ?, game_state = ? WHERE game_id = ?";
+            String sql = "UPDATE game SET white_username = ?, black_username = ?, game_name = ?, game_state = NULL, game_data = ? WHERE game_id = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, game.whiteUsername());
                 ps.setString(2, game.blackUsername());
                 ps.setString(3, game.gameName());
-                ps.setString(4, GSON.toJson(game.game()));
+                ps.setBytes(4, encode(game.game()));
                 ps.setInt(5, game.gameID());
                 ps.executeUpdate();
             }
@@ -127,6 +135,51 @@ public class MySQLGameDAO implements GameDAO {
         }
     }
 
+    private static byte[] encode(ChessGame game) {
+        return game == null ? null : ChessGameCodec.encode(game);
+    }
+
+    private static ChessGame readGame(ResultSet rs) throws SQLException {
+        byte[] data = rs.getBytes("game_data");
+        if (data != null) {
+            return ChessGameCodec.decode(data);
+        }
+        return GSON.fromJson(rs.getString("game_state"), ChessGame.class);
+    }
+
+    /**
+     * Adds the binary column to tables created before it existed.
+     */
+    private void addGameDataColumn(Connection conn) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), null, "game", "game_data")) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("ALTER TABLE game ADD COLUMN game_data BLOB DEFAULT NULL")) {
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Re-encodes games still stored as JSON and clears their JSON column.
+     */
+    private void migrateJsonRows(Connection conn) throws SQLException {
+        String selectSql = "SELECT game_id, game_state FROM game WHERE game_data IS NULL AND game_state IS NOT NULL";
+        String updateSql = "UPDATE game SET game_state = NULL, game_data = ? WHERE game_id = ?";
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement update = conn.prepareStatement(updateSql);
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                ChessGame game = GSON.fromJson(rs.getString("game_state"), ChessGame.class);
+                update.setBytes(1, encode(game));
+                update.setInt(2, rs.getInt("game_id"));
+                update.executeUpdate();
+            }
+        }
+    }
+
     private int generateNextGameId(Connection conn) throws SQLException {
         String sql = "SELECT COALESCE(MAX(game_id), 0) + 1 AS nextId FROM game";
         try (PreparedStatement ps = conn.prepareStatement(sql);
@@ -3,9 +3,15 @@ package server;
 import dataaccess.*;
 import org.eclipse.jetty.websocket.server.WebSocketHandler;
 import org.eclipse.jetty.websocket.api.Session;
+import server.handlers.AnalysisHandler;
+import server.handlers.BotHandler;
 import server.handlers.ClearHandler;
 import server.handlers.GameHandler;
 import server.handlers.UserHandler;
+import service.AnalysisService;
+import service.BotService;
+import service.ComputePool;
+import service.EngineFiles;
 import service.GameService;
 import service.UserService;
 import spark.*;
@@ -18,9 +24,13 @@ public class Server {
 
     public static UserService userService;
     public static GameService gameService;
+    public static BotService botService;
+    public static AnalysisService analysisService;
     UserHandler userHandler;
     GameHandler gameHandler;
     ClearHandler clearHandler;
+    BotHandler botHandler;
+    AnalysisHandler analysisHandler;
 
     AuthDAO authDAO;
     GameDAO gameDAO;
@@ -29,6 +39,10 @@ public class Server {
 
     public static ConcurrentHashMap<Session, Integer> gameSessionsMap = new ConcurrentHashMap<>();
 
+    // most bot moves and analyses that may wait for a compute thread
+    private static final int COMPUTE_QUEUE_CAPACITY = 1024;
+    private final ComputePool computePool = ComputePool.forCores(COMPUTE_QUEUE_CAPACITY);
+
     public Server() {
         this.authDAO = new MySQLAuthDAO();
         this.gameDAO = new MySQLGameDAO();
@@ -36,10 +50,15 @@ public class Server {
 
         userService = new UserService(userDAO, authDAO);
         gameService = new GameService(gameDAO, authDAO);
+        EngineFiles engineFiles = EngineFiles.load();
+        botService = new BotService(gameDAO, authDAO, computePool, engineFiles);
+        analysisService = new AnalysisService(gameDAO, authDAO, computePool, engineFiles);
 
         this.userHandler = new UserHandler(userDAO, authDAO);
         this.clearHandler = new ClearHandler(userDAO, authDAO, gameDAO);
         this.gameHandler = new GameHandler(gameDAO, authDAO);
+        this.botHandler = new BotHandler(botService);
+        this.analysisHandler = new AnalysisHandler(analysisService);
     }
 
     public int run(int desiredPort) {
@@ -55,12 +74,17 @@ public class Server {
         Spark.get("/game", gameHandler::listGames);
         Spark.post("/game", gameHandler::createGame);
         Spark.put("/game", gameHandler::joinGame);
+        Spark.post("/game/bot", botHandler::addBot);
+        Spark.get("/analysis", analysisHandler::analyze);
+        Spark.get("/metrics/compute", botHandler::metrics);
+        Spark.get("/metrics/analysis", analysisHandler::metrics);
 
         Spark.awaitInitialization();
         return Spark.port();
     }
 
     public void stop() {
+        computePool.close();
         Spark.stop();
         Spark.awaitStop();
     }
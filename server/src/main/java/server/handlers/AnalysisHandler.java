@@ -0,0 +1,92 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import dataaccess.DataAccessException;
+import model.AnalysisData;
+import service.AnalysisService;
+import spark.Request;
+import spark.Response;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AnalysisHandler {
+    // longest a request thread waits: a search's own time limit plus a
+    // little for waiting in the compute queue
+    private static final long TIMEOUT_MILLIS = AnalysisService.MAX_SEARCH_MILLIS + 1_000L;
+
+    private final AnalysisService analysisService;
+    private final Gson gson = new Gson();
+
+    public AnalysisHandler(AnalysisService analysisService) {
+        this.analysisService = analysisService;
+    }
+
+    /**
+     * {@code GET /analysis?gameID=1&depth=4} or {@code GET /analysis?fen=...};
+     * depth defaults to 0, legal moves and status only
+     */
+    public Object analyze(Request req, Response resp) {
+        CompletableFuture<AnalysisData> analysis = null;
+        try {
+            String authToken = req.headers("authorization");
+            if (authToken == null || authToken.isEmpty()) {
+                resp.status(401);
+                return gson.toJson(Map.of("message", "Error: unauthorized"));
+            }
+            Integer gameID = req.queryParams("gameID") == null ? null : Integer.parseInt(req.queryParams("gameID"));
+            int depth = req.queryParams("depth") == null ? 0 : Integer.parseInt(req.queryParams("depth"));
+
+            analysis = analysisService.analyze(authToken, gameID, req.queryParams("fen"), depth);
+            AnalysisData result = analysis.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            resp.status(200);
+            return gson.toJson(result);
+        } catch (NumberFormatException e) {
+            resp.status(400);
+            return gson.toJson(Map.of("message", "Error: bad request"));
+        } catch (DataAccessException e) {
+            if (e.getMessage().contains("unauthorized")) {
+                resp.status(401);
+            } else if (e.getMessage().contains("not found") || e.getMessage().contains("invalid")
+                    || e.getMessage().contains("bad request")) {
+                resp.status(400);
+            } else {
+                resp.status(500);
+            }
+            return gson.toJson(Map.of("message", e.getMessage()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                resp.status(503);
+                return gson.toJson(Map.of("message", "Error: server busy"));
+            }
+            resp.status(500);
+            return gson.toJson(Map.of("message", "Error: analysis failed"));
+        } catch (TimeoutException e) {
+            // gives up this request; the search itself is cancelled only if
+            // no other request waits for it
+            analysis.cancel(false);
+            resp.status(503);
+            return gson.toJson(Map.of("message", "Error: analysis timed out"));
+        } catch (CancellationException e) {
+            resp.status(503);
+            return gson.toJson(Map.of("message", "Error: analysis cancelled"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resp.status(500);
+            return gson.toJson(Map.of("message", "Error: interrupted"));
+        }
+    }
+
+    /**
+     * Reports the analysis cache's counters
+     */
+    public Object metrics(Request req, Response resp) {
+        resp.status(200);
+        return gson.toJson(analysisService.metrics());
+    }
+}
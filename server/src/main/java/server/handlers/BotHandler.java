@@ -0,0 +1,73 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import dataaccess.DataAccessException;
+import model.GameData;
+import service.BotService;
+import spark.Request;
+import spark.Response;
+
+import java.util.Map;
+
+public class BotHandler {
+    private final BotService botService;
+    private final Gson gson = new Gson();
+
+    public BotHandler(BotService botService) {
+        this.botService = botService;
+    }
+
+    /**
+     * Seats a bot: {@code {"gameID": 1, "playerColor": "BLACK", "moveMillis": 500}},
+     * where moveMillis is optional
+     */
+    public Object addBot(Request req, Response resp) {
+        try {
+            String authToken = req.headers("authorization");
+            if (authToken == null || authToken.isEmpty()) {
+                resp.status(401);
+                return gson.toJson(Map.of("message", "Error: unauthorized"));
+            }
+
+            Map<String, Object> requestBody = gson.fromJson(req.body(), Map.class);
+            if (requestBody == null) {
+                resp.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            }
+            String playerColor = (String) requestBody.get("playerColor");
+            Double gameIDDouble = (Double) requestBody.get("gameID");
+            Double moveMillisDouble = (Double) requestBody.get("moveMillis");
+            if (playerColor == null || gameIDDouble == null) {
+                resp.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            }
+            int moveMillis = moveMillisDouble == null ? BotService.DEFAULT_MOVE_MILLIS : moveMillisDouble.intValue();
+
+            GameData game = botService.addBot(authToken, gameIDDouble.intValue(), playerColor, moveMillis);
+            WebsocketHandler.playBots(game.gameID());
+            resp.status(200);
+            return gson.toJson(Map.of("gameID", game.gameID(),
+                    "username", playerColor.equalsIgnoreCase("WHITE") ? game.whiteUsername() : game.blackUsername()));
+        } catch (DataAccessException e) {
+            if (e.getMessage().contains("unauthorized")) {
+                resp.status(401);
+            } else if (e.getMessage().contains("already taken")) {
+                resp.status(403);
+            } else if (e.getMessage().contains("not found") || e.getMessage().contains("invalid")
+                    || e.getMessage().contains("move time")) {
+                resp.status(400);
+            } else {
+                resp.status(500);
+            }
+            return gson.toJson(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Reports the compute pool's queue depths and counters
+     */
+    public Object metrics(Request req, Response resp) {
+        resp.status(200);
+        return gson.toJson(botService.pool().metrics());
+    }
+}
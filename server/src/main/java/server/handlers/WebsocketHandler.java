@@ -11,6 +11,8 @@ import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
 import server.Server;
+import service.GameLocks;
+import service.GameService;
 import websocket.commands.*;
 import websocket.messages.*;
 
@@ -61,6 +63,10 @@ public class WebsocketHandler {
                     ResignCommand resignCommand = GSON.fromJson(message, ResignCommand.class);
                     handleResignCommand(session, resignCommand);
                 }
+                case ANALYZE -> {
+                    AnalyzeCommand analyzeCommand = GSON.fromJson(message, AnalyzeCommand.class);
+                    handleAnalyzeCommand(session, analyzeCommand);
+                }
                 default -> System.out.println("Unknown command received.");
             }
         } catch (Exception e) {
@@ -72,17 +78,20 @@ public class WebsocketHandler {
     private void handleConnectCommand(Session session, ConnectCommand cmd) throws IOException {
         try {
             AuthData auth = Server.userService.getAuthData(cmd.getAuthToken());
-            GameData game = Server.gameService.getGameData(cmd.getAuthToken(), cmd.getGameID());
-            if (game.game() == null && game.whiteUsername() != null && game.blackUsername() != null) {
-                game = new GameData(
-                        game.gameID(),
-                        game.whiteUsername(),
-                        game.blackUsername(),
-                        game.gameName(),
-                        new ChessGame()
-                );
-                Server.gameService.updateGame(cmd.getAuthToken(), game);
-                System.out.println("✔ Initialized ChessGame for game ID: " + cmd.getGameID());
+            GameData game;
+            synchronized (GameLocks.of(cmd.getGameID())) {
+                game = Server.gameService.getGameData(cmd.getAuthToken(), cmd.getGameID());
+                if (game.game() == null && game.whiteUsername() != null && game.blackUsername() != null) {
+                    game = new GameData(
+                            game.gameID(),
+                            game.whiteUsername(),
+                            game.blackUsername(),
+                            game.gameName(),
+                            new ChessGame()
+                    );
+                    Server.gameService.updateGame(cmd.getAuthToken(), game);
+                    System.out.println("✔ Initialized ChessGame for game ID: " + cmd.getGameID());
+                }
             }
             String role;
             if (auth.username().equals(game.whiteUsername())) {
@@ -96,6 +105,7 @@ public class WebsocketHandler {
             broadcastMessage(session, notif, false);
             LoadGame load = new LoadGame(game.game());
             sendMessage(session, load);
+            playBots(game.gameID());
         } catch (Exception e) {
             sendError(session, "Error: Not authorized", e);
         }
@@ -104,47 +114,17 @@ public class WebsocketHandler {
     private void handleMoveCommand(Session session, MoveCommand cmd) {
         try {
             AuthData auth = Server.userService.getAuthData(cmd.getAuthToken());
-            GameData game = Server.gameService.getGameData(cmd.getAuthToken(), cmd.getGameID());
-            if (game == null || game.game() == null) {
-                sendError(session, "Error: Game not found or not initialized", new Exception("Game or ChessGame is null"));
-                return;
-            }
-            ChessPosition start = new ChessPosition(
+            ChessPosition start = ChessPosition.of(
                     cmd.getMove().getStartPosition().getRow(),
                     cmd.getMove().getStartPosition().getColumn());
-            ChessPosition end = new ChessPosition(
+            ChessPosition end = ChessPosition.of(
                     cmd.getMove().getEndPosition().getRow(),
                     cmd.getMove().getEndPosition().getColumn());
-            ChessMove move = new ChessMove(start, end, cmd.getMove().getPromotionPiece());
-            ChessGame.TeamColor playerColor = getPlayerColor(auth.username(), game);
-            if (playerColor == null) {
-                sendError(session, "Error: Observers cannot make moves", new Exception("Observer move attempted"));
-                return;
-            }
-            if (game.game().isOver()) {
-                sendError(session, "Error: Game is already over", new Exception("Game over"));
-                return;
-            }
-            if (!game.game().getTeamTurn().equals(playerColor)) {
-                sendError(session, "Error: It is not your turn", new Exception("Wrong turn"));
-                return;
-            }
-            game.game().makeMove(move);
-            // Check post-move state.
-            ChessGame.TeamColor opponent = (playerColor == ChessGame.TeamColor.WHITE)
-                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
-            String notification;
-            if (game.game().isInCheckmate(opponent)) {
-                game.game().setOver(true);
-                notification = "Checkmate! " + auth.username() + " wins!";
-            } else if (game.game().isInStalemate(opponent)) {
-                game.game().setOver(true);
-                notification = "Stalemate! The game is a draw.";
-            } else if (game.game().isInCheck(opponent)) {
-                notification = "Check! " + opponent + " is in check.";
-            } else {
-                notification = auth.username() + " has made a move.";
-            }
+            ChessMove move = ChessMove.of(start, end, cmd.getMove().getPromotionPiece());
+            // Validated, made on a copy of the game and saved under the game's lock.
+            GameService.MoveResult result = Server.gameService.makeMove(cmd.getAuthToken(), cmd.getGameID(), move);
+            GameData game = result.game();
+            String notification = statusMessage(result.status(), auth.username(), game.game().getTeamTurn());
             // Broadcast move notification to everyone except the mover.
             Map<String, Object> notif = new ConcurrentHashMap<>();
             notif.put("serverMessageType", ServerMessage.ServerMessageType.NOTIFICATION);
@@ -155,28 +135,84 @@ public class WebsocketHandler {
             loadGameMessage.put("serverMessageType", ServerMessage.ServerMessageType.LOAD_GAME);
             loadGameMessage.put("game", game.game());
             broadcastMessage(session, loadGameMessage, true);
-            Server.gameService.updateGame(cmd.getAuthToken(), game);
+            playBots(game.gameID());
+        } catch (DataAccessException e) {
+            sendError(session, e.getMessage(), e);
         } catch (Exception e) {
             sendError(session, "Error processing move", e);
         }
     }
 
+    /**
+     * Asks the bot to move in the game, if it is a bot's turn, and when it has
+     * moved tells everyone in the game and lets the next bot move. The search
+     * runs on the bot service's compute pool, not on this thread, and the
+     * bot service saves the move itself.
+     */
+    public static void playBots(int gameID) {
+        try {
+            Server.botService.requestMove(gameID).whenComplete((botMove, error) -> {
+                if (error != null) {
+                    System.err.println("Bot move failed in game " + gameID + ": " + error.getMessage());
+                    return;
+                }
+                if (botMove == null) {
+                    return;
+                }
+                ChessGame chessGame = botMove.game().game();
+                String notification = statusMessage(botMove.status(), botMove.username(), chessGame.getTeamTurn());
+                Map<String, Object> notif = new ConcurrentHashMap<>();
+                notif.put("serverMessageType", ServerMessage.ServerMessageType.NOTIFICATION);
+                notif.put("message", notification);
+                broadcastToGame(gameID, notif);
+                Map<String, Object> loadGameMessage = new ConcurrentHashMap<>();
+                loadGameMessage.put("serverMessageType", ServerMessage.ServerMessageType.LOAD_GAME);
+                loadGameMessage.put("game", chessGame);
+                broadcastToGame(gameID, loadGameMessage);
+                playBots(gameID);
+            });
+        } catch (DataAccessException e) {
+            System.err.println("Error starting bot move in game " + gameID + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param status   the status of the team now to move, see
+     *                 {@link GameService#endIfFinished}
+     * @param mover    the username of the player who moved
+     * @param opponent the team now to move
+     * @return the notification describing the game after the move
+     */
+    private static String statusMessage(ChessGame.GameStatus status, String mover, ChessGame.TeamColor opponent) {
+        return switch (status) {
+            case CHECKMATE -> "Checkmate! " + mover + " wins!";
+            case STALEMATE -> "Stalemate! The game is a draw.";
+            case DRAW_INSUFFICIENT_MATERIAL -> "Draw by insufficient material.";
+            case DRAW_REPETITION -> "Draw by threefold repetition.";
+            case DRAW_FIFTY_MOVE -> "Draw by the fifty-move rule.";
+            case CHECK -> "Check! " + opponent + " is in check.";
+            case NORMAL -> mover + " has made a move.";
+        };
+    }
+
     private void handleLeaveCommand(Session session, LeaveCommand cmd) {
         try {
             AuthData auth = Server.userService.getAuthData(cmd.getAuthToken());
-            GameData game = Server.gameService.getGameData(cmd.getAuthToken(), cmd.getGameID());
             String username = auth.username();
             Map<String, Object> notif = new ConcurrentHashMap<>();
             notif.put("serverMessageType", ServerMessage.ServerMessageType.NOTIFICATION);
             notif.put("message", username + " has left the game.");
             broadcastMessage(session, notif, false);
-            if (username.equals(game.whiteUsername())) {
-                game = new GameData(game.gameID(), null, game.blackUsername(), game.gameName(), game.game());
-            } else if (username.equals(game.blackUsername())) {
-                game = new GameData(game.gameID(), game.whiteUsername(), null, game.gameName(), game.game());
-            }
             Server.gameSessionsMap.remove(session);
-            Server.gameService.updateGame(cmd.getAuthToken(), game);
+            synchronized (GameLocks.of(cmd.getGameID())) {
+                GameData game = Server.gameService.getGameData(cmd.getAuthToken(), cmd.getGameID());
+                if (username.equals(game.whiteUsername())) {
+                    game = new GameData(game.gameID(), null, game.blackUsername(), game.gameName(), game.game());
+                } else if (username.equals(game.blackUsername())) {
+                    game = new GameData(game.gameID(), game.whiteUsername(), null, game.gameName(), game.game());
+                }
+                Server.gameService.updateGame(cmd.getAuthToken(), game);
+            }
         } catch(Exception e) {
             sendError(session, "Error processing leave command", e);
         }
@@ -185,18 +221,8 @@ public class WebsocketHandler {
     private void handleResignCommand(Session session, ResignCommand cmd) {
         try {
             AuthData auth = Server.userService.getAuthData(cmd.getAuthToken());
-            GameData game = Server.gameService.getGameData(cmd.getAuthToken(), cmd.getGameID());
-            ChessGame chessGame = game.game();
-            if (chessGame.isOver()) {
-                sendError(session, "Error: Game is already over", new Exception("Resign attempted after game over"));
-                return;
-            }
-            ChessGame.TeamColor playerColor = getPlayerColor(auth.username(), game);
-            if (playerColor == null) {
-                sendError(session, "Error: Observers cannot resign", new Exception("Observer resignation attempted"));
-                return;
-            }
-            chessGame.setOver(true);
+            GameData game = Server.gameService.resign(cmd.getAuthToken(), cmd.getGameID());
+            ChessGame.TeamColor playerColor = GameService.playerColor(auth.username(), game);
             ChessGame.TeamColor oppColor = (playerColor == ChessGame.TeamColor.WHITE)
                     ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
             String notificationText = auth.username() + " has resigned. Team " + oppColor + " wins!";
@@ -204,15 +230,39 @@ public class WebsocketHandler {
             notif.put("serverMessageType", ServerMessage.ServerMessageType.NOTIFICATION);
             notif.put("message", notificationText);
             broadcastMessage(session, notif, true);
-            Server.gameService.updateGame(cmd.getAuthToken(), game);
+        } catch (DataAccessException e) {
+            sendError(session, e.getMessage(), e);
         } catch(Exception e) {
             sendError(session, "Error processing resign command", e);
         }
     }
 
+    /**
+     * Sends the analysis to the asking session only, once the search on the
+     * compute pool is done
+     */
+    private void handleAnalyzeCommand(Session session, AnalyzeCommand cmd) {
+        try {
+            Server.analysisService.analyze(cmd.getAuthToken(), cmd.getGameID(), cmd.getFen(), cmd.getDepth())
+                    .whenComplete((analysis, error) -> {
+                        if (error != null) {
+                            sendError(session, "Error: analysis failed", new Exception(error));
+                            return;
+                        }
+                        try {
+                            sendMessage(session, new Analysis(analysis));
+                        } catch (IOException e) {
+                            System.err.println("Error sending analysis: " + e.getMessage());
+                        }
+                    });
+        } catch (DataAccessException e) {
+            sendError(session, e.getMessage(), e);
+        }
+    }
+
     public void sendMessage(Session session, Object messageObj) throws IOException {
         String json = GSON.toJson(messageObj);
-        session.getRemote().sendString(json);
+        send(session, json);
     }
 
     public void broadcastMessage(Session sender, Object messageObj, boolean includeSender) throws IOException {
@@ -225,31 +275,47 @@ public class WebsocketHandler {
         for (Session session : Server.gameSessionsMap.keySet()) {
             if (Server.gameSessionsMap.get(session).equals(gameID)) {
                 if (includeSender || !session.equals(sender)) {
-                    session.getRemote().sendString(json);
+                    send(session, json);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a message to every session in the game
+     */
+    public static void broadcastToGame(int gameID, Object messageObj) {
+        String json = GSON.toJson(messageObj);
+        for (Map.Entry<Session, Integer> entry : Server.gameSessionsMap.entrySet()) {
+            if (entry.getValue() == gameID) {
+                try {
+                    send(entry.getKey(), json);
+                } catch (IOException e) {
+                    System.err.println("Error sending to session: " + e.getMessage());
                 }
             }
         }
     }
 
+    /**
+     * Sends one message at a time per session, since bot moves are sent from
+     * compute threads while the session's own thread may also be sending
+     */
+    private static void send(Session session, String json) throws IOException {
+        synchronized (session) {
+            session.getRemote().sendString(json);
+        }
+    }
+
     private void sendError(Session session, String errorMessage, Exception e) {
         e.printStackTrace();
         Map<String, Object> error = new ConcurrentHashMap<>();
         error.put("serverMessageType", ServerMessage.ServerMessageType.ERROR);
         error.put("errorMessage", errorMessage);
         try {
-            session.getRemote().sendString(GSON.toJson(error));
+            send(session, GSON.toJson(error));
         } catch (IOException ex) {
             System.err.println("Error sending error message: " + ex.getMessage());
         }
     }
-
-    private ChessGame.TeamColor getPlayerColor(String username, GameData game) {
-        if (game.whiteUsername() != null && game.whiteUsername().equals(username)) {
-            return ChessGame.TeamColor.WHITE;
-        } else if (game.blackUsername() != null && game.blackUsername().equals(username)) {
-            return ChessGame.TeamColor.BLACK;
-        } else {
-            return null;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.AnalysisData;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Legal moves, status and engine analysis of a game's position or of a FEN
+ * position, for hints and for clients that would rather not work out legal
+ * moves themselves.
+ * <p>
+ * Searches run on the {@link ComputePool} at interactive priority and are
+ * bounded by depth, nodes and time. Their results are cached by position key
+ * and depth; the cache holds running searches, so identical requests that
+ * arrive while a search runs wait for that search instead of starting their
+ * own. Each request gets its own future: cancelling it gives up only that
+ * request, and the search is cancelled once every request waiting for it
+ * has given up. A search cut short by its node or time limit answers the
+ * requests waiting for it but is not cached, since a later request for the
+ * same depth deserves the full search. The cache is bounded, dropping the
+ * least recently asked for position when full. Positions are searched
+ * without the game's history, so the cache can share results between games.
+ * A position in the opening book of the {@link EngineFiles} is answered with
+ * the book's move at depth 0 instead of being searched, and such answers
+ * are not cached, since looking them up again costs less than a search. A
+ * position in its endgame tables is searched one ply deep and cached as an
+ * exact answer.
+ */
+public class AnalysisService {
+    public static final int MAX_DEPTH = 8;
+    // a running search stops at whichever comes first
+    public static final long MAX_SEARCH_MILLIS = 2_000L;
+    static final long MAX_NODES = 2_000_000L;
+    private static final int DEFAULT_CACHE_ENTRIES = 10_000;
+    private static final int HASH_MEGABYTES = 8;
+
+    private final GameDAO gameDAO;
+    private final AuthDAO authDAO;
+    private final ComputePool pool;
+    private final long maxNodes;
+    private final EngineFiles files;
+    private final ThreadLocal<Engine> engines;
+    // in access order; an entry evicted while its search runs only costs
+    // the sharing of that search
+    private final Map<Key, Search> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+
+    private record Key(long position, int depth) { }
+
+    /**
+     * A search and the requests waiting for it
+     */
+    private static final class Search {
+        final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+        private int waiters;
+        private boolean abandoned;
+
+        /**
+         * @return false if every request already gave up on the search, so it
+         * is being cancelled and a new one must be started
+         */
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /**
+         * Gives up one request, cancelling the search if it was the last
+         */
+        void leave() {
+            synchronized (this) {
+                if (--waiters > 0 || result.isDone()) {
+                    return;
+                }
+                abandoned = true;
+            }
+            result.cancel(false);
+        }
+    }
+
+    public AnalysisService(GameDAO gameDAO, AuthDAO authDAO, ComputePool pool) {
+        this(gameDAO, authDAO, pool, EngineFiles.NONE);
+    }
+
+    /**
+     * @param files the opening book and endgame tables analysis answers from
+     */
+    public AnalysisService(GameDAO gameDAO, AuthDAO authDAO, ComputePool pool, EngineFiles files) {
+        this(gameDAO, authDAO, pool, files, DEFAULT_CACHE_ENTRIES, MAX_NODES);
+    }
+
+    /**
+     * @param maxCacheEntries the most searches kept
+     * @param maxNodes        the most positions a search visits
+     */
+    AnalysisService(GameDAO gameDAO, AuthDAO authDAO, ComputePool pool, EngineFiles files, int maxCacheEntries,
+                    long maxNodes) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+        this.pool = pool;
+        this.maxNodes = maxNodes;
+        this.files = files;
+        this.engines = ThreadLocal.withInitial(() -> files.newEngine(HASH_MEGABYTES));
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Search> eldest) {
+                return size() > maxCacheEntries;
+            }
+        });
+    }
+
+    /**
+     * Analyzes the game's position, or the FEN position if one is given
+     *
+     * @param depth how deep to search, 0 for legal moves and status only
+     * @return the analysis; it fails if the compute pool is full. Cancelling
+     * it gives up this request alone; the search is cancelled only when no
+     * other request waits for it
+     */
+    public CompletableFuture<AnalysisData> analyze(String authToken, Integer gameID, String fen, int depth)
+            throws DataAccessException {
+        if (authToken == null || authDAO.getAuth(authToken) == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new DataAccessException("Error: invalid depth, must be between 0 and " + MAX_DEPTH);
+        }
+        ChessGame game = position(gameID, fen);
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        ChessGame.GameStatus status = game.getStatus(turn);
+        MoveList moves = new MoveList();
+        game.legalMoves(turn, moves);
+        List<ChessMove> legalMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            legalMoves.add(PackedMove.toChessMove(moves.get(i)));
+        }
+        String positionFen = game.toFen();
+        if (depth == 0 || moves.isEmpty()) {
+            return CompletableFuture.completedFuture(new AnalysisData(positionFen, turn, status, legalMoves,
+                    0, null, null, null));
+        }
+        Search search = search(game, depth, moves.size() == 1 || files.inTablebase(game));
+        CompletableFuture<AnalysisData> analysis = search.result.thenApply(result -> new AnalysisData(positionFen,
+                turn, status, legalMoves, result.depth(), result.move(), result.score(),
+                result.mateIn() == 0 ? null : result.mateIn()));
+        analysis.whenComplete((result, error) -> {
+            if (analysis.isCancelled()) {
+                search.leave();
+            }
+        });
+        return analysis;
+    }
+
+    /**
+     * @return the cache's counters, for reporting
+     */
+    public Map<String, Object> metrics() {
+        return Map.of("cached", cache.size(), "hits", hits.get(), "searches", searches.get());
+    }
+
+    private ChessGame position(Integer gameID, String fen) throws DataAccessException {
+        if (fen != null && !fen.isBlank()) {
+            try {
+                return ChessGame.fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                throw new DataAccessException("Error: invalid FEN: " + e.getMessage());
+            }
+        }
+        if (gameID == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+        // a fork taken under the game's lock, so it is a position the game
+        // was saved in, and which analysis can move pieces on freely
+        synchronized (GameLocks.of(gameID)) {
+            GameData game = gameDAO.getGame(gameID);
+            if (game == null) {
+                throw new DataAccessException("Error: game not found");
+            }
+            return game.game() == null ? new ChessGame() : game.game().fork();
+        }
+    }
+
+    /**
+     * @return the cached search of the position, joined by the caller,
+     * starting one if there is none or the cached one is being cancelled; a
+     * search that fails, is cancelled or is cut short is forgotten so it can
+     * be tried again, and a cancelled one that has not started yet never runs
+     *
+     * @param exact true if the position has only one move or is in the
+     *              endgame tables, so any result answers the depth asked for
+     */
+    private Search search(ChessGame game, int depth, boolean exact) {
+        Key key = new Key(game.getPositionKey(), depth);
+        Search search;
+        synchronized (cache) {
+            search = cache.get(key);
+            if (search != null && search.join()) {
+                hits.incrementAndGet();
+                return search;
+            }
+            search = new Search();
+            search.join();
+            cache.put(key, search);
+        }
+        searches.incrementAndGet();
+        ChessGame position = ChessGame.fromFen(game.toFen());
+        Search started = search;
+        CompletableFuture<SearchResult> job = pool.submit(ComputePool.Priority.INTERACTIVE,
+                () -> engines.get().bestMove(position,
+                        SearchLimits.depth(depth).withNodes(maxNodes).withMillis(MAX_SEARCH_MILLIS)));
+        job.whenComplete((result, error) -> {
+            if (error != null || !exact && !complete(result, depth)) {
+                cache.remove(key, started);
+            }
+            if (error != null) {
+                started.result.completeExceptionally(error);
+            } else {
+                started.result.complete(result);
+            }
+        });
+        started.result.whenComplete((result, error) -> {
+            if (started.result.isCancelled()) {
+                cache.remove(key, started);
+                job.cancel(false);
+            }
+        });
+        return started;
+    }
+
+    /**
+     * @return whether the search answers the depth asked for: it reached the
+     * depth or found a mate within the depth it reached, rather than running
+     * out of nodes or time
+     */
+    private static boolean complete(SearchResult result, int depth) {
+        return result.depth() >= depth || Math.abs(result.score()) >= Engine.MATE - result.depth();
+    }
+}
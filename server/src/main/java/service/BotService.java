@@ -0,0 +1,218 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.AuthData;
+import model.GameData;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side bot players. A bot sits in a game's white or black seat under
+ * a username of the form {@code bot:<millis>}, where millis is its time
+ * budget per move, and plays through the same game records as people do.
+ * <p>
+ * Moves are searched on a {@link ComputePool}, never on the thread that
+ * asked for them. Each pool thread keeps its own {@link Engine}. A bot
+ * playing a person is queued ahead of a bot playing another bot. Positions
+ * in the opening book of the {@link EngineFiles} are played from the book
+ * without searching, and positions in its endgame tables from the tables
+ * after a one ply search.
+ */
+public class BotService {
+    public static final String PREFIX = "bot:";
+    public static final int DEFAULT_MOVE_MILLIS = 1000;
+    public static final int MIN_MOVE_MILLIS = 50;
+    public static final int MAX_MOVE_MILLIS = 10_000;
+    private static final int HASH_MEGABYTES = 16;
+
+    private final GameDAO gameDAO;
+    private final AuthDAO authDAO;
+    private final ComputePool pool;
+    private final ThreadLocal<Engine> engines;
+    // games with a bot move queued or being searched
+    private final Set<Integer> thinking = ConcurrentHashMap.newKeySet();
+
+    public BotService(GameDAO gameDAO, AuthDAO authDAO, ComputePool pool) {
+        this(gameDAO, authDAO, pool, EngineFiles.NONE);
+    }
+
+    /**
+     * @param files the opening book and endgame tables the bots play from
+     */
+    public BotService(GameDAO gameDAO, AuthDAO authDAO, ComputePool pool, EngineFiles files) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+        this.pool = pool;
+        this.engines = ThreadLocal.withInitial(() -> files.newEngine(HASH_MEGABYTES));
+    }
+
+    /**
+     * A move a bot made
+     *
+     * @param game     the game after the move, as saved
+     * @param username the bot that moved
+     * @param move     the move
+     * @param status   the status of the team now to move
+     */
+    public record BotMove(GameData game, String username, ChessMove move, ChessGame.GameStatus status) { }
+
+    public static boolean isBot(String username) {
+        return username != null && username.startsWith(PREFIX);
+    }
+
+    /**
+     * @return the time budget per move of a bot username
+     */
+    public static int moveMillis(String username) {
+        try {
+            int millis = Integer.parseInt(username.substring(PREFIX.length()));
+            return Math.max(MIN_MOVE_MILLIS, Math.min(MAX_MOVE_MILLIS, millis));
+        } catch (NumberFormatException e) {
+            return DEFAULT_MOVE_MILLIS;
+        }
+    }
+
+    /**
+     * Seats a bot in an empty seat, and starts the game if both seats are
+     * then taken
+     *
+     * @return the game with the bot seated
+     */
+    public GameData addBot(String authToken, int gameID, String color, int moveMillis) throws DataAccessException {
+        AuthData authData = authDAO.getAuth(authToken);
+        if (authData == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+        if (moveMillis < MIN_MOVE_MILLIS || moveMillis > MAX_MOVE_MILLIS) {
+            throw new DataAccessException("Error: move time must be between " + MIN_MOVE_MILLIS + " and "
+                    + MAX_MOVE_MILLIS + " ms");
+        }
+        synchronized (GameLocks.of(gameID)) {
+            return seatBot(gameDAO.getGame(gameID), color, PREFIX + moveMillis);
+        }
+    }
+
+    /**
+     * Seats the bot and saves the game; the caller holds the game's lock
+     */
+    private GameData seatBot(GameData game, String color, String bot) throws DataAccessException {
+        if (game == null) {
+            throw new DataAccessException("Error: game not found");
+        }
+        if ("WHITE".equalsIgnoreCase(color)) {
+            if (game.whiteUsername() != null) {
+                throw new DataAccessException("Error: white seat already taken");
+            }
+            game = new GameData(game.gameID(), bot, game.blackUsername(), game.gameName(), game.game());
+        } else if ("BLACK".equalsIgnoreCase(color)) {
+            if (game.blackUsername() != null) {
+                throw new DataAccessException("Error: black seat already taken");
+            }
+            game = new GameData(game.gameID(), game.whiteUsername(), bot, game.gameName(), game.game());
+        } else {
+            throw new DataAccessException("Error: invalid color choice");
+        }
+        if (game.game() == null && game.whiteUsername() != null && game.blackUsername() != null) {
+            game = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                    new ChessGame());
+        }
+        gameDAO.updateGame(game);
+        return game;
+    }
+
+    /**
+     * @return the bot whose turn it is in the game, or null if it is a
+     * person's turn or the game is not being played
+     */
+    public static String botToMove(GameData game) {
+        if (game == null || game.game() == null || game.game().isOver()) {
+            return null;
+        }
+        String mover = game.game().getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? game.whiteUsername() : game.blackUsername();
+        return isBot(mover) ? mover : null;
+    }
+
+    /**
+     * Queues a search for the bot to move in the game, if there is one. The
+     * bot thinks about a fork of the game; its move is made and saved under
+     * the game's lock, and only if the game is still where it was.
+     *
+     * @return the bot's move, already saved, or null if no bot is to move, a
+     * move is already being searched, or the game changed while the bot was
+     * thinking; the future fails if the pool is full
+     */
+    public CompletableFuture<BotMove> requestMove(int gameID) throws DataAccessException {
+        GameData game;
+        ChessGame snapshot;
+        synchronized (GameLocks.of(gameID)) {
+            game = gameDAO.getGame(gameID);
+            if (botToMove(game) == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            snapshot = game.game().fork();
+        }
+        String bot = botToMove(game);
+        if (!thinking.add(gameID)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String opponent = bot.equals(game.whiteUsername()) ? game.blackUsername() : game.whiteUsername();
+        ComputePool.Priority priority = isBot(opponent)
+                ? ComputePool.Priority.BOT_VS_BOT : ComputePool.Priority.BOT_VS_HUMAN;
+        long position = snapshot.getPositionKey();
+        CompletableFuture<BotMove> move = pool.submit(priority, () -> {
+            try {
+                SearchResult result = engines.get().bestMove(snapshot, SearchLimits.time(moveMillis(bot)));
+                if (result.move() == null) {
+                    return null;
+                }
+                return play(gameID, bot, position, result.move());
+            } finally {
+                // before the future completes, so its callbacks can ask again
+                thinking.remove(gameID);
+            }
+        });
+        if (move.isCompletedExceptionally()) {
+            thinking.remove(gameID);
+        }
+        return move;
+    }
+
+    /**
+     * Makes and saves the bot's move if it is still the bot's turn in the
+     * position it thought about
+     */
+    private BotMove play(int gameID, String bot, long position, ChessMove move)
+            throws DataAccessException, InvalidMoveException {
+        synchronized (GameLocks.of(gameID)) {
+            GameData current = gameDAO.getGame(gameID);
+            if (!bot.equals(botToMove(current)) || current.game().getPositionKey() != position) {
+                return null;
+            }
+            ChessGame next = current.game().fork();
+            next.makeMove(move);
+            ChessGame.GameStatus status = GameService.endIfFinished(next);
+            current = new GameData(current.gameID(), current.whiteUsername(), current.blackUsername(),
+                    current.gameName(), next);
+            gameDAO.updateGame(current);
+            return new BotMove(current, bot, move, status);
+        }
+    }
+
+    /**
+     * @return the pool bot moves are searched on
+     */
+    public ComputePool pool() {
+        return pool;
+    }
+}
@@ -0,0 +1,187 @@
+package service;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of threads for engine work, kept off the Jetty threads that
+ * serve requests and websocket messages.
+ * <p>
+ * Queued tasks run highest priority first, and in submission order within a
+ * priority, so a flood of bot-against-bot games waits behind work a person is
+ * waiting for. The queue holds at most {@code capacity} tasks; beyond that a
+ * task fails at once with a {@link RejectedExecutionException} instead of
+ * queueing up latency. The threads run below normal priority, so the request
+ * threads get the CPU first when both are busy.
+ */
+public class ComputePool implements AutoCloseable {
+    /**
+     * Priorities, highest first
+     */
+    public enum Priority {
+        INTERACTIVE,
+        BOT_VS_HUMAN,
+        BOT_VS_BOT
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger[] queuedByPriority = new AtomicInteger[Priority.values().length];
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /**
+     * @param threads  number of worker threads
+     * @param capacity most tasks that may wait in the queue
+     */
+    public ComputePool(int threads, int capacity) {
+        if (threads < 1 || capacity < 1) {
+            throw new IllegalArgumentException("A compute pool needs a thread and a queue: " + threads
+                    + " threads, capacity " + capacity);
+        }
+        this.capacity = capacity;
+        for (int i = 0; i < queuedByPriority.length; i++) {
+            queuedByPriority[i] = new AtomicInteger();
+        }
+        AtomicInteger number = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "compute-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * A pool with a thread for every core but one, left for serving requests
+     */
+    public static ComputePool forCores(int capacity) {
+        return new ComputePool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), capacity);
+    }
+
+    /**
+     * Queues a task. Cancelling the returned future before the task starts
+     * keeps it from running; a task already running is not interrupted.
+     *
+     * @return the task's result, or a future failed with a
+     * {@link RejectedExecutionException} if the queue is full or the pool is
+     * closed
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException("Compute queue is full"));
+            return result;
+        }
+        queuedByPriority[priority.ordinal()].incrementAndGet();
+        try {
+            executor.execute(new Job<>(priority, sequence.getAndIncrement(), task, result));
+        } catch (RejectedExecutionException e) {
+            dequeued(priority);
+            rejected.incrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * @return tasks waiting to run
+     */
+    public int queueDepth() {
+        return queued.get();
+    }
+
+    public int queueDepth(Priority priority) {
+        return queuedByPriority[priority.ordinal()].get();
+    }
+
+    /**
+     * @return a snapshot of the pool's counters, for reporting
+     */
+    public Map<String, Object> metrics() {
+        long done = completed.get();
+        return Map.of(
+                "threads", executor.getMaximumPoolSize(),
+                "active", executor.getActiveCount(),
+                "queued", queued.get(),
+                "queuedInteractive", queueDepth(Priority.INTERACTIVE),
+                "queuedBotVsHuman", queueDepth(Priority.BOT_VS_HUMAN),
+                "queuedBotVsBot", queueDepth(Priority.BOT_VS_BOT),
+                "capacity", capacity,
+                "completed", done,
+                "rejected", rejected.get(),
+                "averageWaitMillis", done == 0 ? 0.0 : waitNanos.get() / 1e6 / done);
+    }
+
+    /**
+     * Stops the threads; tasks still queued fail with a
+     * {@link CancellationException}
+     */
+    @Override
+    public void close() {
+        for (Runnable job : executor.shutdownNow()) {
+            ((Job<?>) job).cancel();
+        }
+    }
+
+    private void dequeued(Priority priority) {
+        queued.decrementAndGet();
+        queuedByPriority[priority.ordinal()].decrementAndGet();
+    }
+
+    /**
+     * A queued task; ordered for the priority queue
+     */
+    private final class Job<T> implements Runnable, Comparable<Job<?>> {
+        private final Priority priority;
+        private final long sequence;
+        private final Callable<T> task;
+        private final CompletableFuture<T> result;
+        private final long queuedAt = System.nanoTime();
+
+        Job(Priority priority, long sequence, Callable<T> task, CompletableFuture<T> result) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            dequeued(priority);
+            if (result.isDone()) {
+                // cancelled while queued
+                return;
+            }
+            waitNanos.addAndGet(System.nanoTime() - queuedAt);
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                completed.incrementAndGet();
+            }
+        }
+
+        void cancel() {
+            dequeued(priority);
+            result.completeExceptionally(new CancellationException("Compute pool closed"));
+        }
+
+        @Override
+        public int compareTo(Job<?> other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
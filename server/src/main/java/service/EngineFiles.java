@@ -0,0 +1,82 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.Engine;
+import chess.engine.OpeningBook;
+import chess.engine.Tablebase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * The files the server's engines play from, named in the optional
+ * {@code engine.properties} on the classpath:
+ * <pre>
+ *  engine.book        an opening book written by chess.engine.BookBuilder
+ *  engine.tablebases  a directory of endgame tables written by
+ *                     chess.engine.TablebaseGenerator
+ * </pre>
+ * A file that is not configured or not there is simply not used, and the
+ * engines search those positions instead. The files are memory-mapped once
+ * and shared by every engine.
+ *
+ * @param book      the opening book, or null for none
+ * @param tablebase the endgame tables, or null for none
+ */
+public record EngineFiles(OpeningBook book, Tablebase tablebase) {
+    public static final EngineFiles NONE = new EngineFiles(null, null);
+
+    /**
+     * Opens the files named in {@code engine.properties}
+     *
+     * @throws RuntimeException if a file is there but cannot be opened
+     */
+    public static EngineFiles load() {
+        Properties props = new Properties();
+        try (InputStream propStream = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream("engine.properties")) {
+            if (propStream == null) {
+                return NONE;
+            }
+            props.load(propStream);
+            return new EngineFiles(openBook(props.getProperty("engine.book")),
+                    openTablebase(props.getProperty("engine.tablebases")));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("unable to process engine.properties. " + e.getMessage());
+        }
+    }
+
+    private static OpeningBook openBook(String path) throws IOException {
+        if (path == null || path.isBlank() || !Files.isRegularFile(Path.of(path))) {
+            return null;
+        }
+        return OpeningBook.open(Path.of(path));
+    }
+
+    private static Tablebase openTablebase(String path) throws IOException {
+        if (path == null || path.isBlank() || !Files.isDirectory(Path.of(path))) {
+            return null;
+        }
+        return Tablebase.open(Path.of(path));
+    }
+
+    /**
+     * @return true if the tables score the game's position exactly
+     */
+    public boolean inTablebase(ChessGame game) {
+        return tablebase != null && tablebase.probe(game) != Tablebase.UNKNOWN;
+    }
+
+    /**
+     * @return an engine playing from these files
+     */
+    public Engine newEngine(int hashMegabytes) {
+        Engine engine = new Engine(hashMegabytes);
+        engine.setOpeningBook(book);
+        engine.setTablebase(tablebase);
+        return engine;
+    }
+}
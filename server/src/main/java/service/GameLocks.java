@@ -0,0 +1,28 @@
+package service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One lock per game. Everything that reads a game to change it, whether a
+ * person's move, a resignation, a seat change or a bot's move, holds the
+ * game's lock from reading the stored game to saving the new one, so no
+ * change is lost to another made in between.
+ * <p>
+ * Changes are made to a {@link chess.ChessGame#fork() fork} of the stored
+ * game and saved as a new record; a stored game is never changed in place,
+ * so it can be read or forked while another thread holds its lock.
+ */
+public final class GameLocks {
+    private static final Map<Integer, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private GameLocks() {
+    }
+
+    /**
+     * @return the lock to synchronize on while changing the game
+     */
+    public static Object of(int gameID) {
+        return LOCKS.computeIfAbsent(gameID, id -> new Object());
+    }
+}
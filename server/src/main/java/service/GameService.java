@@ -1,5 +1,8 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import dataaccess.*;
 import model.AuthData;
 import model.GameData;
@@ -15,6 +18,14 @@ public class GameService {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
     }
+
+    /**
+     * A move made in a game
+     *
+     * @param game   the game after the move, as saved
+     * @param status the status of the team now to move
+     */
+    public record MoveResult(GameData game, ChessGame.GameStatus status) { }
     public HashSet<GameData> listGames(String authToken) throws DataAccessException {
         AuthData authData = authDAO.getAuth(authToken);
         if (authData == null) {
@@ -88,39 +99,140 @@ public class GameService {
             throw new DataAccessException("Error: unauthorized");
         }
 
-        GameData game = gameDAO.getGame(gameID);
-        if (game == null) {
-            throw new DataAccessException("Error: game not found");
-        }
+        synchronized (GameLocks.of(gameID)) {
+            GameData game = gameDAO.getGame(gameID);
+            if (game == null) {
+                throw new DataAccessException("Error: game not found");
+            }
+
+            // Allow observers without modifying the game state
+            if ("OBSERVER".equalsIgnoreCase(color)) {
+                // Simply return true; they are allowed to observe
+                return true;
+            }
+
+            // Validate color
+            if (!"WHITE".equalsIgnoreCase(color) && !"BLACK".equalsIgnoreCase(color)) {
+                throw new DataAccessException("Error: invalid color choice");
+            }
 
-        // Allow observers without modifying the game state
-        if ("OBSERVER".equalsIgnoreCase(color)) {
-            // Simply return true; they are allowed to observe
+            // Join as WHITE
+            if ("WHITE".equalsIgnoreCase(color)) {
+                if (game.whiteUsername() != null) {
+                    throw new DataAccessException("Error: white seat already taken");
+                }
+                game = new GameData(game.gameID(), authData.username(), game.blackUsername(), game.gameName(),
+                        game.game());
+            }
+            // Join as BLACK
+            else {
+                if (game.blackUsername() != null) {
+                    throw new DataAccessException("Error: black seat already taken");
+                }
+                game = new GameData(game.gameID(), game.whiteUsername(), authData.username(), game.gameName(),
+                        game.game());
+            }
+
+            gameDAO.updateGame(game);
             return true;
         }
+    }
 
-        // Validate color
-        if (!"WHITE".equalsIgnoreCase(color) && !"BLACK".equalsIgnoreCase(color)) {
-            throw new DataAccessException("Error: invalid color choice");
+    /**
+     * Makes a player's move and saves the game, ending it if the move
+     * finished it
+     *
+     * @throws InvalidMoveException if the move is not legal
+     */
+    public MoveResult makeMove(String authToken, int gameID, ChessMove move)
+            throws DataAccessException, InvalidMoveException {
+        AuthData authData = authDAO.getAuth(authToken);
+        if (authData == null) {
+            throw new DataAccessException("Error: unauthorized");
         }
 
-        // Join as WHITE
-        if ("WHITE".equalsIgnoreCase(color)) {
-            if (game.whiteUsername() != null) {
-                throw new DataAccessException("Error: white seat already taken");
+        synchronized (GameLocks.of(gameID)) {
+            GameData game = gameDAO.getGame(gameID);
+            if (game == null || game.game() == null) {
+                throw new DataAccessException("Error: Game not found or not initialized");
+            }
+            ChessGame.TeamColor playerColor = playerColor(authData.username(), game);
+            if (playerColor == null) {
+                throw new DataAccessException("Error: Observers cannot make moves");
             }
-            game = new GameData(game.gameID(), authData.username(), game.blackUsername(), game.gameName(), game.game());
+            if (game.game().isOver()) {
+                throw new DataAccessException("Error: Game is already over");
+            }
+            if (game.game().getTeamTurn() != playerColor) {
+                throw new DataAccessException("Error: It is not your turn");
+            }
+
+            ChessGame next = game.game().fork();
+            next.makeMove(move);
+            ChessGame.GameStatus status = endIfFinished(next);
+            game = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), next);
+            gameDAO.updateGame(game);
+            return new MoveResult(game, status);
+        }
+    }
+
+    /**
+     * Ends the game with the player resigning and saves it
+     *
+     * @return the game after the resignation
+     */
+    public GameData resign(String authToken, int gameID) throws DataAccessException {
+        AuthData authData = authDAO.getAuth(authToken);
+        if (authData == null) {
+            throw new DataAccessException("Error: unauthorized");
         }
-        // Join as BLACK
-        else {
-            if (game.blackUsername() != null) {
-                throw new DataAccessException("Error: black seat already taken");
+
+        synchronized (GameLocks.of(gameID)) {
+            GameData game = gameDAO.getGame(gameID);
+            if (game == null || game.game() == null) {
+                throw new DataAccessException("Error: Game not found or not initialized");
+            }
+            if (game.game().isOver()) {
+                throw new DataAccessException("Error: Game is already over");
+            }
+            if (playerColor(authData.username(), game) == null) {
+                throw new DataAccessException("Error: Observers cannot resign");
             }
-            game = new GameData(game.gameID(), game.whiteUsername(), authData.username(), game.gameName(), game.game());
+
+            ChessGame over = game.game().fork();
+            over.setOver(true);
+            game = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), over);
+            gameDAO.updateGame(game);
+            return game;
         }
+    }
 
-        gameDAO.updateGame(game);
-        return true;
+    /**
+     * Ends the game if the last move finished it
+     *
+     * @return the status of the team now to move
+     */
+    public static ChessGame.GameStatus endIfFinished(ChessGame game) {
+        ChessGame.GameStatus status = game.getStatus(game.getTeamTurn());
+        if (status != ChessGame.GameStatus.NORMAL && status != ChessGame.GameStatus.CHECK) {
+            game.setOver(true);
+        }
+        return status;
+    }
+
+    /**
+     * @return the team the user plays in the game, or null for an observer
+     */
+    public static ChessGame.TeamColor playerColor(String username, GameData game) {
+        if (username == null) {
+            return null;
+        } else if (username.equals(game.whiteUsername())) {
+            return ChessGame.TeamColor.WHITE;
+        } else if (username.equals(game.blackUsername())) {
+            return ChessGame.TeamColor.BLACK;
+        } else {
+            return null;
+        }
     }
 
 
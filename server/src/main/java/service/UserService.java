@@ -23,6 +23,10 @@ public class UserService {
             throw new RequestException("Error: bad request");
         }
 
+        if (BotService.isBot(userData.username())) {
+            throw new RequestException("Error: bad request");
+        }
+
         if (userDAO.getUser(userData.username()) != null) {
             throw new RequestException("Error: already taken");
         }
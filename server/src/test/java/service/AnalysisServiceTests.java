@@ -0,0 +1,212 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.engine.BookBuilder;
+import chess.engine.OpeningBook;
+import chess.engine.Tablebase;
+import chess.engine.TablebaseGenerator;
+import dataaccess.*;
+import model.AnalysisData;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisServiceTests {
+    private static final String TOKEN = "validToken123";
+    private static final String MATE_IN_ONE = "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1";
+    private static final String OTHER = "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1";
+
+    private AnalysisService analysisService;
+    private GameDAO gameDAO;
+    private AuthDAO authDAO;
+    private ComputePool pool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        gameDAO = new MemoryGameDAO();
+        authDAO = new MemoryAuthDAO();
+        gameDAO.clear();
+        authDAO.clear();
+        authDAO.createAuth(new AuthData(TOKEN, "testUser"));
+        pool = new ComputePool(1, 16);
+        analysisService = new AnalysisService(gameDAO, authDAO, pool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void testLegalMovesOfGame() throws Exception {
+        gameDAO.createGame(new GameData(0, "white", "black", "Game1", new ChessGame()));
+
+        AnalysisData analysis = analysisService.analyze(TOKEN, 1, null, 0).get(10, TimeUnit.SECONDS);
+
+        assertEquals(20, analysis.legalMoves().size());
+        assertEquals(ChessGame.TeamColor.WHITE, analysis.turn());
+        assertEquals(ChessGame.GameStatus.NORMAL, analysis.status());
+        assertNull(analysis.bestMove());
+    }
+
+    @Test
+    public void testBestMoveOfFen() throws Exception {
+        AnalysisData analysis = analysisService.analyze(TOKEN, null, MATE_IN_ONE, 3).get(10, TimeUnit.SECONDS);
+
+        assertEquals(ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), analysis.bestMove());
+        assertEquals(1, analysis.mateIn());
+        assertEquals(MATE_IN_ONE, analysis.fen());
+    }
+
+    @Test
+    public void testCheckmateHasNoMoves() throws Exception {
+        AnalysisData analysis = analysisService.analyze(TOKEN, null, "R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 1", 4)
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(ChessGame.GameStatus.CHECKMATE, analysis.status());
+        assertTrue(analysis.legalMoves().isEmpty());
+        assertEquals(0, analysis.depth());
+    }
+
+    @Test
+    public void testIdenticalRequestsShareOneSearch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit(ComputePool.Priority.INTERACTIVE, () -> release.await(10, TimeUnit.SECONDS));
+
+        List<CompletableFuture<AnalysisData>> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(analysisService.analyze(TOKEN, null, MATE_IN_ONE, 2));
+        }
+        release.countDown();
+        for (CompletableFuture<AnalysisData> request : requests) {
+            assertEquals(1, request.get(10, TimeUnit.SECONDS).mateIn());
+        }
+        analysisService.analyze(TOKEN, null, MATE_IN_ONE, 2).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1L, analysisService.metrics().get("searches"));
+        assertEquals(5L, analysisService.metrics().get("hits"));
+    }
+
+    @Test
+    public void testCacheDropsLeastRecentlyUsed() throws Exception {
+        AnalysisService small = new AnalysisService(gameDAO, authDAO, pool, EngineFiles.NONE, 2,
+                AnalysisService.MAX_NODES);
+        String start = new ChessGame().toFen();
+        String[] order = {MATE_IN_ONE, start, MATE_IN_ONE, OTHER, MATE_IN_ONE, start};
+        for (String fen : order) {
+            small.analyze(TOKEN, null, fen, 1).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, small.metrics().get("cached"));
+        assertEquals(2L, small.metrics().get("hits"));
+        assertEquals(4L, small.metrics().get("searches"));
+    }
+
+    @Test
+    public void testCancelledAnalysisNeverSearches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit(ComputePool.Priority.INTERACTIVE, () -> release.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<AnalysisData> analysis = analysisService.analyze(TOKEN, null, MATE_IN_ONE, 2);
+        analysis.cancel(false);
+        release.countDown();
+        pool.submit(ComputePool.Priority.INTERACTIVE, () -> true).get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, analysisService.metrics().get("cached"));
+        assertEquals(2L, pool.metrics().get("completed"));
+        assertEquals(1, analysisService.analyze(TOKEN, null, MATE_IN_ONE, 2).get(10, TimeUnit.SECONDS).mateIn());
+    }
+
+    @Test
+    public void testCancelledRequestLeavesOthersWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit(ComputePool.Priority.INTERACTIVE, () -> release.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<AnalysisData> gaveUp = analysisService.analyze(TOKEN, null, MATE_IN_ONE, 2);
+        CompletableFuture<AnalysisData> waiting = analysisService.analyze(TOKEN, null, MATE_IN_ONE, 2);
+        gaveUp.cancel(false);
+        release.countDown();
+
+        assertEquals(1, waiting.get(10, TimeUnit.SECONDS).mateIn());
+        assertEquals(1L, analysisService.metrics().get("searches"));
+        assertEquals(1, analysisService.metrics().get("cached"));
+    }
+
+    @Test
+    public void testSearchCutShortIsNotCached() throws Exception {
+        AnalysisService limited = new AnalysisService(gameDAO, authDAO, pool, EngineFiles.NONE, 16, 1);
+        String start = new ChessGame().toFen();
+
+        AnalysisData analysis = limited.analyze(TOKEN, null, start, 6).get(10, TimeUnit.SECONDS);
+        limited.analyze(TOKEN, null, start, 6).get(10, TimeUnit.SECONDS);
+
+        assertTrue(analysis.depth() < 6);
+        assertEquals(0, limited.metrics().get("cached"));
+        assertEquals(2L, limited.metrics().get("searches"));
+    }
+
+    @Test
+    public void testBookPositionIsNotSearched() throws Exception {
+        BookBuilder builder = new BookBuilder(4);
+        builder.addGame("e2e4 e7e5");
+        builder.addGame("e2e4 c7c5");
+        builder.addGame("d2d4 d7d5");
+        Path file = directory.resolve("book.bin");
+        builder.write(file);
+        AnalysisService booked = new AnalysisService(gameDAO, authDAO, pool, new EngineFiles(OpeningBook.open(file), null));
+
+        AnalysisData analysis = booked.analyze(TOKEN, null, new ChessGame().toFen(), 6).get(10, TimeUnit.SECONDS);
+
+        assertEquals(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null), analysis.bestMove());
+        assertEquals(0, analysis.depth());
+        assertEquals(0, booked.metrics().get("cached"));
+        assertEquals(1, booked.analyze(TOKEN, null, MATE_IN_ONE, 2).get(10, TimeUnit.SECONDS).mateIn());
+    }
+
+    @Test
+    public void testTablebasePositionIsAnsweredFromTables() throws Exception {
+        Files.write(directory.resolve(Tablebase.Endgame.KRK.fileName()),
+                new TablebaseGenerator(ForkJoinPool.commonPool()).generate(Tablebase.Endgame.KRK));
+        Tablebase tablebase = Tablebase.open(directory);
+        AnalysisService tabled = new AnalysisService(gameDAO, authDAO, pool, new EngineFiles(null, tablebase));
+        String fen = "8/8/8/4k3/8/8/8/R3K3 w - - 0 1";
+
+        AnalysisData analysis = tabled.analyze(TOKEN, null, fen, AnalysisService.MAX_DEPTH)
+                .get(10, TimeUnit.SECONDS);
+        tabled.analyze(TOKEN, null, fen, AnalysisService.MAX_DEPTH).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, analysis.depth());
+        assertEquals(tablebase.probe(ChessGame.fromFen(fen)), analysis.score());
+        assertEquals(1L, tabled.metrics().get("searches"));
+        assertEquals(1, tabled.metrics().get("cached"));
+    }
+
+    @Test
+    public void testAnalyzeFailBadRequests() {
+        assertThrows(DataAccessException.class, () -> analysisService.analyze("badToken", null, MATE_IN_ONE, 1));
+        assertThrows(DataAccessException.class, () -> analysisService.analyze(TOKEN, null, null, 1));
+        assertThrows(DataAccessException.class, () -> analysisService.analyze(TOKEN, null, "not a fen", 1));
+        assertThrows(DataAccessException.class,
+                () -> analysisService.analyze(TOKEN, null, MATE_IN_ONE, AnalysisService.MAX_DEPTH + 1));
+        assertThrows(DataAccessException.class, () -> analysisService.analyze(TOKEN, 99, null, 1));
+    }
+}
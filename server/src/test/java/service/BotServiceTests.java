@@ -0,0 +1,180 @@
+package service;
+
+import chess.ChessGame;
+import dataaccess.*;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotServiceTests {
+    private static final String TOKEN = "validToken123";
+
+    private BotService botService;
+    private GameDAO gameDAO;
+    private AuthDAO authDAO;
+    private ComputePool pool;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        gameDAO = new MemoryGameDAO();
+        authDAO = new MemoryAuthDAO();
+        gameDAO.clear();
+        authDAO.clear();
+        authDAO.createAuth(new AuthData(TOKEN, "testUser"));
+        pool = new ComputePool(1, 16);
+        botService = new BotService(gameDAO, authDAO, pool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void testAddBotSeatsBotAndStartsGame() throws DataAccessException {
+        gameDAO.createGame(new GameData(0, "testUser", null, "Bot Game", null));
+
+        GameData game = botService.addBot(TOKEN, 1, "BLACK", 200);
+
+        assertEquals("bot:200", game.blackUsername());
+        assertNotNull(game.game());
+        assertEquals(game, gameDAO.getGame(1));
+        assertNull(BotService.botToMove(game));
+    }
+
+    @Test
+    public void testAddBotFailSeatTaken() throws DataAccessException {
+        gameDAO.createGame(new GameData(0, "testUser", null, "Bot Game", null));
+
+        DataAccessException thrown = assertThrows(DataAccessException.class, () -> {
+            botService.addBot(TOKEN, 1, "WHITE", 200);
+        });
+
+        assertEquals("Error: white seat already taken", thrown.getMessage());
+    }
+
+    @Test
+    public void testAddBotFailBadMoveTime() throws DataAccessException {
+        gameDAO.createGame(new GameData(0, null, null, "Bot Game", null));
+
+        assertThrows(DataAccessException.class, () -> botService.addBot(TOKEN, 1, "WHITE", 1));
+        assertThrows(DataAccessException.class, () -> botService.addBot("badToken", 1, "WHITE", 200));
+    }
+
+    @Test
+    public void testBotMovesOnItsTurn() throws Exception {
+        gameDAO.createGame(new GameData(0, null, "testUser", "Bot Game", null));
+        botService.addBot(TOKEN, 1, "WHITE", 50);
+
+        BotService.BotMove move = botService.requestMove(1).get(10, TimeUnit.SECONDS);
+
+        assertNotNull(move);
+        assertEquals("bot:50", move.username());
+        assertEquals(ChessGame.TeamColor.BLACK, move.game().game().getTeamTurn());
+        assertNull(botService.requestMove(1).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBotsPlayEachOther() throws Exception {
+        gameDAO.createGame(new GameData(0, null, null, "Bot Game", null));
+        botService.addBot(TOKEN, 1, "WHITE", 50);
+        botService.addBot(TOKEN, 1, "BLACK", 50);
+
+        for (int ply = 0; ply < 4; ply++) {
+            BotService.BotMove move = botService.requestMove(1).get(10, TimeUnit.SECONDS);
+            assertNotNull(move);
+            assertEquals(move.game(), gameDAO.getGame(1));
+        }
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    public void testResignWhileBotThinks() throws Exception {
+        gameDAO.createGame(new GameData(0, null, "testUser", "Bot Game", null));
+        botService.addBot(TOKEN, 1, "WHITE", 50);
+        ChessGame before = gameDAO.getGame(1).game();
+        CountDownLatch release = new CountDownLatch(1);
+        pool.submit(ComputePool.Priority.INTERACTIVE, () -> release.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<BotService.BotMove> move = botService.requestMove(1);
+        GameData resigned = new GameService(gameDAO, authDAO).resign(TOKEN, 1);
+        release.countDown();
+
+        assertNull(move.get(10, TimeUnit.SECONDS));
+        GameData saved = gameDAO.getGame(1);
+        assertEquals(resigned, saved);
+        assertTrue(saved.game().isOver());
+        assertEquals(ChessGame.TeamColor.WHITE, saved.game().getTeamTurn());
+        assertEquals(new ChessGame(), before);
+        assertFalse(before.isOver(), "Resigning changed the stored game in place");
+    }
+
+    @Test
+    public void testBotUsernames() {
+        assertTrue(BotService.isBot("bot:500"));
+        assertFalse(BotService.isBot("robot"));
+        assertFalse(BotService.isBot(null));
+        assertEquals(500, BotService.moveMillis("bot:500"));
+        assertEquals(BotService.MAX_MOVE_MILLIS, BotService.moveMillis("bot:99999999"));
+        assertEquals(BotService.DEFAULT_MOVE_MILLIS, BotService.moveMillis("bot:fast"));
+    }
+
+    @Test
+    public void testPoolRunsHighestPriorityFirst() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = pool.submit(ComputePool.Priority.BOT_VS_BOT, () -> {
+            release.await();
+            return null;
+        });
+        while (pool.queueDepth() > 0) {
+            Thread.sleep(1);
+        }
+        List<String> order = new ArrayList<>();
+        List<CompletableFuture<Boolean>> tasks = new ArrayList<>();
+        tasks.add(pool.submit(ComputePool.Priority.BOT_VS_BOT, () -> order.add("bot")));
+        tasks.add(pool.submit(ComputePool.Priority.BOT_VS_HUMAN, () -> order.add("human")));
+        tasks.add(pool.submit(ComputePool.Priority.INTERACTIVE, () -> order.add("interactive")));
+        assertEquals(3, pool.queueDepth());
+        assertEquals(1, pool.queueDepth(ComputePool.Priority.BOT_VS_BOT));
+
+        release.countDown();
+        blocker.get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<Boolean> task : tasks) {
+            task.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of("interactive", "human", "bot"), order);
+        assertEquals(0, pool.queueDepth());
+        assertEquals(4L, pool.metrics().get("completed"));
+    }
+
+    @Test
+    public void testPoolRejectsWhenFull() throws Exception {
+        ComputePool small = new ComputePool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        small.submit(ComputePool.Priority.BOT_VS_BOT, () -> release.await(10, TimeUnit.SECONDS));
+        while (small.queueDepth() > 0) {
+            Thread.sleep(1);
+        }
+        small.submit(ComputePool.Priority.BOT_VS_BOT, () -> true);
+
+        CompletableFuture<Boolean> rejected = small.submit(ComputePool.Priority.INTERACTIVE, () -> true);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+        assertEquals(1L, small.metrics().get("rejected"));
+        release.countDown();
+        small.close();
+    }
+}
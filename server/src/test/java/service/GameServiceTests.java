@@ -1,5 +1,9 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import dataaccess.*;
 import model.AuthData;
 import model.GameData;
@@ -428,6 +432,70 @@ public class GameServiceTests {
         assertEquals("Error: black seat already taken", thrown.getMessage());
     }
 
+    @Test
+    public void testMakeMoveSuccess() throws Exception {
+        authDAO.createAuth(new AuthData("token1", "player1"));
+        gameDAO.createGame(new GameData(0, "player1", "player2", "Chess Game", new ChessGame()));
+        ChessGame before = gameDAO.getGame(1).game();
+
+        GameService.MoveResult result = gameService.makeMove("token1", 1,
+                ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        assertEquals(ChessGame.GameStatus.NORMAL, result.status());
+        assertEquals(result.game(), gameDAO.getGame(1));
+        assertEquals(ChessGame.TeamColor.BLACK, result.game().game().getTeamTurn());
+        assertEquals(new ChessGame(), before, "The stored game was changed in place");
+    }
+
+    @Test
+    public void testMakeMoveFailNotYourTurn() throws DataAccessException {
+        authDAO.createAuth(new AuthData("token2", "player2"));
+        gameDAO.createGame(new GameData(0, "player1", "player2", "Chess Game", new ChessGame()));
+
+        DataAccessException thrown = assertThrows(DataAccessException.class, () -> {
+            gameService.makeMove("token2", 1, ChessMove.of(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        });
+
+        assertEquals("Error: It is not your turn", thrown.getMessage());
+    }
+
+    @Test
+    public void testMakeMoveFailIllegalMove() throws DataAccessException {
+        authDAO.createAuth(new AuthData("token1", "player1"));
+        gameDAO.createGame(new GameData(0, "player1", "player2", "Chess Game", new ChessGame()));
+
+        assertThrows(InvalidMoveException.class, () -> {
+            gameService.makeMove("token1", 1, ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(5, 5), null));
+        });
+        assertEquals(new ChessGame(), gameDAO.getGame(1).game());
+    }
+
+    @Test
+    public void testResignSuccess() throws DataAccessException {
+        authDAO.createAuth(new AuthData("token1", "player1"));
+        gameDAO.createGame(new GameData(0, "player1", "player2", "Chess Game", new ChessGame()));
+
+        GameData game = gameService.resign("token1", 1);
+
+        assertTrue(game.game().isOver());
+        assertTrue(gameDAO.getGame(1).game().isOver());
+    }
+
+    @Test
+    public void testResignFailObserverAndGameOver() throws DataAccessException {
+        authDAO.createAuth(new AuthData("token1", "player1"));
+        authDAO.createAuth(new AuthData("token3", "player3"));
+        gameDAO.createGame(new GameData(0, "player1", "player2", "Chess Game", new ChessGame()));
 
+        DataAccessException observer = assertThrows(DataAccessException.class, () -> {
+            gameService.resign("token3", 1);
+        });
+        gameService.resign("token1", 1);
+        DataAccessException over = assertThrows(DataAccessException.class, () -> {
+            gameService.resign("token1", 1);
+        });
 
+        assertEquals("Error: Observers cannot resign", observer.getMessage());
+        assertEquals("Error: Game is already over", over.getMessage());
+    }
 }
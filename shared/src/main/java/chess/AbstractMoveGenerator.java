@@ -23,14 +23,14 @@ public abstract class AbstractMoveGenerator implements PieceMoves {
                     break;
                 }
 
-                ChessPosition newPosition = new ChessPosition(row, col);
+                ChessPosition newPosition = ChessPosition.of(row, col);
                 ChessPiece piece = board.getPiece(newPosition);
 
                 if (piece == null) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
+                    moves.add(ChessMove.of(myPosition, newPosition, null));
                 } else {
                     if (piece.getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                        moves.add(new ChessMove(myPosition, newPosition, null));
+                        moves.add(ChessMove.of(myPosition, newPosition, null));
                     }
                     break;
                 }
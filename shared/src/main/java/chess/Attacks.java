@@ -0,0 +1,208 @@
+package chess;
+
+/**
+ * Precomputed attack tables. Leaper and pawn attacks are a single array
+ * lookup; rook and bishop attacks use magic bitboards, where the relevant
+ * blockers are multiplied by a per-square magic number to index a table of
+ * every possible attack set for that square.
+ * <p>
+ * Magic numbers are searched for once when the class loads, using a fixed
+ * seed so the tables are identical on every run.
+ */
+public final class Attacks {
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static long seed = 0x2545F4914F6CDD1DL;
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            long bit = 1L << square;
+            KNIGHT[square] = Bitboards.knightAttacks(bit);
+            KING[square] = Bitboards.kingAttacks(bit);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = Bitboards.pawnAttacks(bit, ChessGame.TeamColor.WHITE);
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = Bitboards.pawnAttacks(bit, ChessGame.TeamColor.BLACK);
+            ROOK[square] = findMagic(square, ROOK_DIRECTIONS);
+            BISHOP[square] = findMagic(square, BISHOP_DIRECTIONS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                fillLine(a, b);
+            }
+        }
+    }
+
+    private Attacks() {}
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the square attacks
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    public static long rook(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    public static long bishop(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return ROOK[square].attacks(occupied) | BISHOP[square].attacks(occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same rank,
+     * file or diagonal, or an empty bitboard if they are not aligned
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal running through both squares,
+     * or an empty bitboard if they are not aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private static void fillLine(int a, int b) {
+        long bitB = 1L << b;
+        if (a == b) {
+            return;
+        }
+        if ((rookReference(a, 0L) & bitB) != 0) {
+            BETWEEN[a][b] = rookReference(a, bitB) & rookReference(b, 1L << a);
+            LINE[a][b] = (rookReference(a, 0L) & rookReference(b, 0L)) | (1L << a) | bitB;
+        } else if ((bishopReference(a, 0L) & bitB) != 0) {
+            BETWEEN[a][b] = bishopReference(a, bitB) & bishopReference(b, 1L << a);
+            LINE[a][b] = (bishopReference(a, 0L) & bishopReference(b, 0L)) | (1L << a) | bitB;
+        }
+    }
+
+    /**
+     * Computes slider attacks by walking each ray until it runs into a
+     * blocker. Only used to fill the magic tables and to check them.
+     */
+    static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = square >>> 3;
+            int col = square & 7;
+            while (true) {
+                row += direction[0];
+                col += direction[1];
+                if (row < 0 || row > 7 || col < 0 || col > 7) {
+                    break;
+                }
+                long target = 1L << ((row << 3) | col);
+                attacks |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    static long rookReference(int square, long occupied) {
+        return slidingAttacks(square, occupied, ROOK_DIRECTIONS);
+    }
+
+    static long bishopReference(int square, long occupied) {
+        return slidingAttacks(square, occupied, BISHOP_DIRECTIONS);
+    }
+
+    /**
+     * The squares whose occupancy can change the slider's attacks. The last
+     * square of each ray never blocks anything beyond it, so it is left out.
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row + direction[0] >= 0 && row + direction[0] <= 7
+                    && col + direction[1] >= 0 && col + direction[1] <= 7) {
+                mask |= 1L << ((row << 3) | col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static Magic findMagic(int square, int[][] directions) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = sparseRandom();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                return new Magic(mask, magic, 64 - bits, table);
+            }
+        }
+    }
+
+    private static long sparseRandom() {
+        return nextRandom() & nextRandom() & nextRandom();
+    }
+
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+
+    private record Magic(long mask, long magic, int shift, long[] table) {
+        long attacks(long occupied) {
+            return table[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+}
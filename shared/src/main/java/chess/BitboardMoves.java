@@ -0,0 +1,35 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Adapts {@link MoveGenerator} to the {@link PieceMoves} interface, wrapping
+ * the packed moves it produces in {@link ChessMove}s. Stateless, so a single
+ * shared instance is used.
+ * <p>
+ * The older per-piece generators ({@link KingMoves}, {@link PawnMoves}, ...)
+ * are kept as a reference implementation for differential testing.
+ */
+public class BitboardMoves implements PieceMoves {
+    public static final BitboardMoves INSTANCE = new BitboardMoves();
+
+    private static final ThreadLocal<MoveList> BUFFER = ThreadLocal.withInitial(MoveList::new);
+
+    @Override
+    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        MoveList moves = BUFFER.get();
+        moves.clear();
+        MoveGenerator.generate(board, Bitboards.square(myPosition), moves);
+        return toChessMoves(moves);
+    }
+
+    static List<ChessMove> toChessMoves(MoveList moves) {
+        List<ChessMove> result = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            result.add(PackedMove.toChessMove(moves.get(i)));
+        }
+        return result;
+    }
+}
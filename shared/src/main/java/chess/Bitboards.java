@@ -0,0 +1,95 @@
+package chess;
+
+/**
+ * Static helpers for working with 64-bit bitboards.
+ * <p>
+ * Squares are numbered 0-63 starting at row 1, column 1 (a1) and moving
+ * across each row before moving up, so square = (row - 1) * 8 + (column - 1).
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+    // a1 is a dark square
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    public static final long DARK_SQUARES = ~LIGHT_SQUARES;
+
+    private static final long NOT_FILE_A = ~FILE_A;
+    private static final long NOT_FILE_H = ~FILE_H;
+    private static final long NOT_FILE_AB = ~(FILE_A | (FILE_A << 1));
+    private static final long NOT_FILE_GH = ~(FILE_H | (FILE_H >>> 1));
+
+    private Bitboards() {}
+
+    public static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return the lowest set square of a non-empty bitboard
+     */
+    public static int first(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    public static long north(long b) {
+        return b << 8;
+    }
+
+    public static long south(long b) {
+        return b >>> 8;
+    }
+
+    public static long east(long b) {
+        return (b << 1) & NOT_FILE_A;
+    }
+
+    public static long west(long b) {
+        return (b >>> 1) & NOT_FILE_H;
+    }
+
+    public static long knightAttacks(long knights) {
+        long l1 = (knights >>> 1) & NOT_FILE_H;
+        long l2 = (knights >>> 2) & NOT_FILE_GH;
+        long r1 = (knights << 1) & NOT_FILE_A;
+        long r2 = (knights << 2) & NOT_FILE_AB;
+        long h1 = l1 | r1;
+        long h2 = l2 | r2;
+        return (h1 << 16) | (h1 >>> 16) | (h2 << 8) | (h2 >>> 8);
+    }
+
+    public static long kingAttacks(long kings) {
+        long sides = east(kings) | west(kings);
+        long row = sides | kings;
+        return sides | north(row) | south(row);
+    }
+
+    /**
+     * @return every square attacked diagonally by the given pawns
+     */
+    public static long pawnAttacks(long pawns, ChessGame.TeamColor color) {
+        long forward = color == ChessGame.TeamColor.WHITE ? north(pawns) : south(pawns);
+        return east(forward) | west(forward);
+    }
+}
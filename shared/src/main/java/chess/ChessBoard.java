@@ -1,18 +1,89 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * The board is stored as one bitboard per piece type and color plus
+ * occupancy masks for each team, with a small mailbox for constant time
+ * square lookups. See {@link Bitboards} for the square numbering.
+ * <p>
+ * The board also carries the castling rights and en passant square, which
+ * {@link #doMove(int)} keeps up to date. They are part of the position key
+ * from {@link #getRuleKey()} but not of {@link #equals}, which compares
+ * piece placement only. A new board starts with every castling right; a
+ * right only takes effect while its king and rook are on their home squares.
  */
+@JsonAdapter(ChessBoardTypeAdapter.class)
 public class ChessBoard {
-    private ChessPiece[][] squares;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 1 << 1;
+    public static final int BLACK_KINGSIDE = 1 << 2;
+    public static final int BLACK_QUEENSIDE = 1 << 3;
+    public static final int ALL_CASTLING = 15;
+
+    private static final int KING_INDEX = ChessPiece.PieceType.KING.ordinal();
+    private static final int WHITE_KING = pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+    private static final int WHITE_ROOK = pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+    private static final int BLACK_KING = pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+    private static final int BLACK_ROOK = pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+
+    // castling rights kept by a move from or to each square
+    private static final byte[] CASTLING_KEPT = new byte[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, (byte) ALL_CASTLING);
+        CASTLING_KEPT[4] = (byte) ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] = (byte) ~WHITE_KINGSIDE;
+        CASTLING_KEPT[0] = (byte) ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[60] = (byte) ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] = (byte) ~BLACK_KINGSIDE;
+        CASTLING_KEPT[56] = (byte) ~BLACK_QUEENSIDE;
+    }
+
+    private final long[] pieces = new long[12];
+    private final long[] teams = new long[2];
+    // piece index + 1 for every square, 0 when the square is empty
+    private final byte[] mailbox = new byte[64];
+    // number of pieces of each index on the board
+    private final byte[] counts = new byte[12];
+    // square of each team's king, or -1 if it has none
+    private final int[] kingSquares = {-1, -1};
+
+    // Zobrist key of the piece placement, see Zobrist
+    private long key;
+
+    // castling rights mask, see WHITE_KINGSIDE and friends
+    private int castlingRights = ALL_CASTLING;
+    // square a pawn skipped with a double push, or -1; only set when an
+    // enemy pawn could capture onto it
+    private int enPassant = -1;
+
+    // one packed record per move made with doMove, see pushUndo
+    private long[] undoStack = new long[32];
+    private int undoSize;
+
+    // told about every piece placed or removed, or null
+    private PieceListener listener;
+
     public ChessBoard() {
-        squares = new ChessPiece[8][8];
+    }
+
+    private ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.teams, 0, teams, 0, teams.length);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        System.arraycopy(other.kingSquares, 0, kingSquares, 0, kingSquares.length);
+        key = other.key;
+        castlingRights = other.castlingRights;
+        enPassant = other.enPassant;
     }
 
     /**
@@ -22,7 +93,21 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        addPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard, or clears the square if the piece
+     * is null
+     *
+     * @param square square index, see {@link Bitboards}
+     * @param piece  the piece to add
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        removePiece(square);
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -33,42 +118,451 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow() - 1][position.getColumn() - 1];
+        return getPiece(Bitboards.square(position));
+    }
+
+    /**
+     * @param square square index, see {@link Bitboards}
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        int code = mailbox[square];
+        return code == 0 ? null : ChessPiece.of(code - 1);
+    }
+
+    /**
+     * @return how many pieces of the given team and type are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return counts[pieceIndex(color, type)];
+    }
+
+    /**
+     * Determines whether neither team has enough material left to checkmate:
+     * king against king, king and one minor piece against king, or kings
+     * and bishops that all stand on squares of one color. Reads the piece
+     * counts kept by every board change, so it takes constant time.
+     *
+     * @return True if no sequence of moves can end in checkmate
+     */
+    public boolean isInsufficientMaterial() {
+        int base = 0;
+        int minors = 0;
+        for (int team = 0; team < 2; team++, base += 6) {
+            if (counts[base + ChessPiece.PieceType.PAWN.ordinal()] != 0
+                    || counts[base + ChessPiece.PieceType.ROOK.ordinal()] != 0
+                    || counts[base + ChessPiece.PieceType.QUEEN.ordinal()] != 0) {
+                return false;
+            }
+            minors += counts[base + ChessPiece.PieceType.KNIGHT.ordinal()]
+                    + counts[base + ChessPiece.PieceType.BISHOP.ordinal()];
+        }
+        if (minors <= 1) {
+            return true;
+        }
+        int knights = counts[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)]
+                + counts[pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT)];
+        long bishops = pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP)]
+                | pieces[pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP)];
+        return knights == 0 && ((bishops & Bitboards.LIGHT_SQUARES) == 0 || (bishops & Bitboards.DARK_SQUARES) == 0);
+    }
+
+    /**
+     * @return bitboard of every piece of the given team and type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square occupied by the given team
+     */
+    public long getTeamPieces(ChessGame.TeamColor color) {
+        return teams[color.ordinal()];
     }
 
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupied() {
+        return teams[0] | teams[1];
+    }
+
+    /**
+     * @return square index of the team's king, or -1 if the team has no king
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Determines if any piece of the given team attacks the square. Works
+     * outward from the square using the attack tables, so the cost does not
+     * depend on how many pieces are on the board.
+     *
+     * @param square square index, see {@link Bitboards}
+     * @param byColor the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square, byColor, getOccupied());
+    }
+
+    /**
+     * Same as {@link #isSquareAttacked(int, ChessGame.TeamColor)}, but sliding
+     * attacks are computed against the given occupancy instead of the board's
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor, long occupied) {
+        int base = byColor.ordinal() * 6;
+        long queens = pieces[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Attacks.knight(square) & pieces[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (Attacks.pawn(ChessGame.opponent(byColor), square)
+                        & pieces[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (Attacks.king(square) & pieces[base + ChessPiece.PieceType.KING.ordinal()]) != 0
+                || (Attacks.bishop(square, occupied)
+                        & (pieces[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens)) != 0
+                || (Attacks.rook(square, occupied)
+                        & (pieces[base + ChessPiece.PieceType.ROOK.ordinal()] | queens)) != 0;
+    }
+
+    /**
+     * @return bitboard of every piece of the given team attacking the square
+     */
+    public long getAttackers(int square, ChessGame.TeamColor byColor) {
+        int base = byColor.ordinal() * 6;
+        long occupied = getOccupied();
+        long queens = pieces[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Attacks.knight(square) & pieces[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Attacks.pawn(ChessGame.opponent(byColor), square) & pieces[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Attacks.king(square) & pieces[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Attacks.bishop(square, occupied) & (pieces[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Attacks.rook(square, occupied) & (pieces[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * @return bitboard of the given team's pieces that are pinned to their own
+     * king by an enemy slider
+     */
+    public long getPinned(ChessGame.TeamColor color) {
+        int king = getKingSquare(color);
+        if (king < 0) {
+            return 0L;
+        }
+        int enemy = ChessGame.opponent(color).ordinal() * 6;
+        long queens = pieces[enemy + ChessPiece.PieceType.QUEEN.ordinal()];
+        long snipers = (Attacks.rook(king, 0L) & (pieces[enemy + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (Attacks.bishop(king, 0L) & (pieces[enemy + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+        long occupied = getOccupied();
+        long pinned = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Bitboards.first(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned & teams[color.ordinal()];
+    }
+
+    /**
+     * Makes a move on the board without checking whether it is legal. The
+     * move can be taken back with {@link #undoMove()}.
+     *
+     * @param move a {@link PackedMove} whose from square holds a piece
+     */
+    public void doMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = mailbox[from] - 1;
+        int capturedSquare = PackedMove.isEnPassant(move) ? enPassantVictim(to) : to;
+        int captured = mailbox[capturedSquare] - 1;
+        pushUndo(move, moving, captured);
+
+        removePiece(capturedSquare);
+        removePiece(from);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        putPiece(to, promotion == null ? moving : (moving / 6) * 6 + promotion.ordinal());
+        if (PackedMove.isCastle(move)) {
+            int rook = mailbox[castlingRookFrom(from, to)] - 1;
+            removePiece(castlingRookFrom(from, to));
+            putPiece((from + to) / 2, rook);
+        }
+
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        enPassant = -1;
+        if (PackedMove.isDoublePush(move)) {
+            setEnPassantSquare((from + to) / 2);
+        }
+    }
+
+    /**
+     * Takes back the last move made with {@link #doMove(int)}.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        long record = undoStack[--undoSize];
+        int move = (int) (record & 0xFFFFF);
+        int moving = (int) ((record >>> 20) & 15);
+        int captured = (int) ((record >>> 24) & 15) - 1;
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (PackedMove.isCastle(move)) {
+            int rook = mailbox[(from + to) / 2] - 1;
+            removePiece((from + to) / 2);
+            putPiece(castlingRookFrom(from, to), rook);
+        }
+        removePiece(to);
+        putPiece(from, moving);
+        if (captured >= 0) {
+            putPiece(PackedMove.isEnPassant(move) ? enPassantVictim(to) : to, captured);
+        }
+        castlingRights = (int) ((record >>> 28) & 15);
+        enPassant = (int) ((record >>> 32) & 127) - 1;
+    }
+
+    /**
+     * Undo records pack the move (20 bits), the moving piece index (4 bits),
+     * the captured piece index + 1 (4 bits, 0 for none), the castling rights
+     * (4 bits) and the en passant square + 1 (7 bits, 0 for none) into one
+     * long.
+     */
+    private void pushUndo(int move, int moving, int captured) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+        }
+        undoStack[undoSize++] = (move & 0xFFFFFL) | ((long) moving << 20) | ((long) (captured + 1) << 24)
+                | ((long) castlingRights << 28) | ((long) (enPassant + 1) << 32);
+    }
+
+    /**
+     * @return the square of the pawn taken by an en passant capture onto the
+     * target square
+     */
+    static int enPassantVictim(int target) {
+        // the target is on rank 6 for white captures and rank 3 for black ones
+        return target >= 32 ? target - 8 : target + 8;
+    }
+
+    /**
+     * @return the rook's square before a castle, given the king's move
+     */
+    static int castlingRookFrom(int kingFrom, int kingTo) {
+        return kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+    }
+
+    /**
+     * @return the castling rights whose king and rook are still on their home
+     * squares, as a mask of {@link #WHITE_KINGSIDE} and friends
+     */
+    public int getCastlingRights() {
+        int rights = castlingRights;
+        if (mailbox[4] != WHITE_KING + 1) {
+            rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if (mailbox[7] != WHITE_ROOK + 1) {
+            rights &= ~WHITE_KINGSIDE;
+        }
+        if (mailbox[0] != WHITE_ROOK + 1) {
+            rights &= ~WHITE_QUEENSIDE;
+        }
+        if (mailbox[60] != BLACK_KING + 1) {
+            rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if (mailbox[63] != BLACK_ROOK + 1) {
+            rights &= ~BLACK_KINGSIDE;
+        }
+        if (mailbox[56] != BLACK_ROOK + 1) {
+            rights &= ~BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    /**
+     * @param rights mask of {@link #WHITE_KINGSIDE} and friends
+     */
+    public void setCastlingRights(int rights) {
+        castlingRights = rights & ALL_CASTLING;
+    }
+
+    /**
+     * @return the square a pawn skipped over with a double push on the last
+     * move, if an enemy pawn is in place to capture onto it, otherwise -1
+     */
+    public int getEnPassantSquare() {
+        return enPassant;
+    }
+
+    /**
+     * Sets the en passant square. It is cleared unless it is on the third or
+     * sixth rank with an enemy pawn in place to capture onto it.
+     *
+     * @param square square index, see {@link Bitboards}, or -1 for none
+     */
+    public void setEnPassantSquare(int square) {
+        enPassant = -1;
+        if (square >= 16 && square < 24) {
+            if ((Attacks.pawn(ChessGame.TeamColor.WHITE, square)
+                    & pieces[pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN)]) != 0) {
+                enPassant = square;
+            }
+        } else if (square >= 40 && square < 48) {
+            if ((Attacks.pawn(ChessGame.TeamColor.BLACK, square)
+                    & pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN)]) != 0) {
+                enPassant = square;
+            }
+        }
+    }
+
+    /**
+     * @return the Zobrist key of the castling rights and en passant square,
+     * which together with {@link #getKey()} identifies the position
+     */
+    public long getRuleKey() {
+        return Zobrist.castling(getCastlingRights()) ^ Zobrist.enPassant(enPassant);
+    }
 
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares = new ChessPiece[8][8];
-        //white pieces
-        for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-        }
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-
-        //black pieces
-        for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
-        }
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        clear();
+        ChessPiece.PieceType[] backRow = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for (int col = 1; col <= 8; col++) {
+            putPiece(Bitboards.square(1, col), pieceIndex(ChessGame.TeamColor.WHITE, backRow[col - 1]));
+            putPiece(Bitboards.square(2, col), pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.square(7, col), pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.square(8, col), pieceIndex(ChessGame.TeamColor.BLACK, backRow[col - 1]));
+        }
+    }
 
+    /**
+     * Sets the listener to notify of every piece placed on or removed from
+     * the board from now on. It is not told about the pieces already on the
+     * board.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setPieceListener(PieceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Copies the board for moves that should not touch this one. The board
+     * is a few hundred bytes of primitive arrays, so this costs about as much
+     * as one move; no pieces are allocated.
+     *
+     * @return a board with the same pieces, castling rights and en passant
+     * square, with no moves to undo and no piece listener
+     */
+    public ChessBoard fork() {
+        return new ChessBoard(this);
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board. Equal boards always
+     * have equal keys.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return a new board with the pieces from the FEN's placement field,
+     * see {@link Fen}
+     * @throws IllegalArgumentException if the placement is not valid
+     */
+    public static ChessBoard fromFen(CharSequence fen) {
+        return Fen.parseBoard(fen);
+    }
+
+    /**
+     * @return the FEN piece placement field for this board
+     */
+    public String toFen() {
+        return Fen.toFen(this);
+    }
+
+    /**
+     * @return the index of the piece kind: the team's ordinal times six plus
+     * the type's ordinal
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the piece index on the square, or -1 if it is empty
+     */
+    int pieceIndexAt(int square) {
+        return mailbox[square] - 1;
+    }
+
+    /**
+     * Puts the piece with the given index on an empty square
+     */
+    void placePiece(int square, int index) {
+        putPiece(square, index);
+    }
+
+    private void clear() {
+        if (listener != null) {
+            for (long occupied = getOccupied(); occupied != 0; occupied &= occupied - 1) {
+                removePiece(Bitboards.first(occupied));
+            }
+        }
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(teams, 0L);
+        Arrays.fill(mailbox, (byte) 0);
+        Arrays.fill(counts, (byte) 0);
+        Arrays.fill(kingSquares, -1);
+        castlingRights = ALL_CASTLING;
+        enPassant = -1;
+        undoSize = 0;
+        key = 0L;
+    }
+
+    private void putPiece(int square, int index) {
+        key ^= Zobrist.piece(index, square);
+        long bit = 1L << square;
+        pieces[index] |= bit;
+        teams[index / 6] |= bit;
+        mailbox[square] = (byte) (index + 1);
+        counts[index]++;
+        if (listener != null) {
+            listener.pieceAdded(index, square);
+        }
+        if (index % 6 == KING_INDEX) {
+            kingSquares[index / 6] = square;
+        }
+    }
+
+    private void removePiece(int square) {
+        int code = mailbox[square];
+        if (code == 0) {
+            return;
+        }
+        key ^= Zobrist.piece(code - 1, square);
+        long bit = 1L << square;
+        pieces[code - 1] &= ~bit;
+        teams[(code - 1) / 6] &= ~bit;
+        mailbox[square] = 0;
+        counts[code - 1]--;
+        if (listener != null) {
+            listener.pieceRemoved(code - 1, square);
+        }
+        if ((code - 1) % 6 == KING_INDEX) {
+            long kings = pieces[code - 1];
+            kingSquares[(code - 1) / 6] = kings == 0 ? -1 : Bitboards.first(kings);
+        }
     }
 
     @Override
@@ -77,11 +571,11 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return key == that.key && Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(key);
     }
 }
@@ -0,0 +1,79 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a {@link ChessBoard} in the same JSON layout Gson produced
+ * for the original {@code ChessPiece[8][8] squares} field, so stored games and
+ * clients keep working with the bitboard representation. The castling rights
+ * and en passant square are written as two extra fields; boards stored
+ * without them get a new board's defaults.
+ */
+class ChessBoardTypeAdapter extends TypeAdapter<ChessBoard> {
+    private static final ChessPieceTypeAdapter PIECE_ADAPTER = new ChessPieceTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        out.beginObject();
+        out.name("squares");
+        out.beginArray();
+        for (int row = 1; row <= 8; row++) {
+            out.beginArray();
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    out.nullValue();
+                } else {
+                    PIECE_ADAPTER.write(out, piece);
+                }
+            }
+            out.endArray();
+        }
+        out.endArray();
+        out.name("castlingRights").value(board.getCastlingRights());
+        out.name("enPassant").value(board.getEnPassantSquare());
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        ChessBoard board = new ChessBoard();
+        int castlingRights = ChessBoard.ALL_CASTLING;
+        int enPassant = -1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "squares" -> readSquares(in, board);
+                case "castlingRights" -> castlingRights = in.nextInt();
+                case "enPassant" -> enPassant = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        board.setCastlingRights(castlingRights);
+        // set last, since whether it applies depends on the pawns
+        board.setEnPassantSquare(enPassant);
+        return board;
+    }
+
+    private void readSquares(JsonReader in, ChessBoard board) throws IOException {
+        in.beginArray();
+        for (int row = 1; in.hasNext(); row++) {
+            in.beginArray();
+            for (int col = 1; in.hasNext(); col++) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else {
+                    board.addPiece(Bitboards.square(row, col), PIECE_ADAPTER.read(in));
+                }
+            }
+            in.endArray();
+        }
+        in.endArray();
+    }
+}
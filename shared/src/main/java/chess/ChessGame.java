@@ -1,5 +1,7 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.*;
 
 /**
@@ -8,16 +10,44 @@ import java.util.*;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGameTypeAdapter.class)
 public class ChessGame {
+    // scratch space for move generation, confined to the calling thread
+    private static final ThreadLocal<MoveList> BUFFER = ThreadLocal.withInitial(MoveList::new);
+
+    // a draw can be claimed after fifty moves by each side without a capture
+    // or pawn move
+    static final int FIFTY_MOVE_PLIES = 100;
+    // the most positions kept for repetition checks; a power of two above
+    // FIFTY_MOVE_PLIES
+    private static final int MAX_HISTORY = 128;
+
     private TeamColor teamTurn;
     private ChessBoard board;
     private boolean gameOver;
+
+    // ring of the keys of the positions left since the last capture or pawn
+    // move; the key after n such plies is at index n & (history.length - 1).
+    // The current position's key is always worked out afresh, so changing
+    // the turn or the board cannot leave a stale key behind. Both are
+    // written to JSON by ChessGameTypeAdapter, which checks them when read
+    private transient long[] history = new long[8];
+    private transient int halfmoveClock;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         setTeamTurn(TeamColor.WHITE);
     }
 
+    private ChessGame(ChessGame other) {
+        teamTurn = other.teamTurn;
+        board = other.board == null ? null : other.board.fork();
+        gameOver = other.gameOver;
+        history = other.history.clone();
+        halfmoveClock = other.halfmoveClock;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -42,6 +72,19 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * The state of the game for the team whose status is being asked for
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW_INSUFFICIENT_MATERIAL,
+        DRAW_REPETITION,
+        DRAW_FIFTY_MOVE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -50,28 +93,43 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessPiece currPiece = board.getPiece(startPosition);
-        if (currPiece == null) {
+        int from = Bitboards.square(startPosition);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
             return Collections.emptyList();
         }
 
         List<ChessMove> validMoves = new ArrayList<>();
-
-        for (ChessMove move : currPiece.pieceMoves(board, startPosition)) {
-            ChessPiece tempPiece = board.getPiece(move.getEndPosition());
-            board.addPiece(startPosition, null);
-            board.addPiece(move.getEndPosition(), currPiece);
-
-            if (!isInCheck(currPiece.getTeamColor())) {
-                validMoves.add(move);
+        for (int move : cachedMoves(piece.getTeamColor()).moves()) {
+            if (PackedMove.from(move) == from) {
+                validMoves.add(PackedMove.toChessMove(move));
             }
-            board.addPiece(move.getEndPosition(), tempPiece);
-            board.addPiece(startPosition, currPiece);
         }
-
         return validMoves;
     }
 
+    /**
+     * Adds the legal moves of the piece on the given square to the list as
+     * {@link PackedMove}s
+     *
+     * @param from  square index of the piece, see {@link Bitboards}
+     * @param moves list to append to
+     */
+    public void legalMoves(int from, MoveList moves) {
+        MoveGenerator.generateLegal(board, from, moves);
+    }
+
+    /**
+     * Adds every legal move for the given team to the list as
+     * {@link PackedMove}s
+     *
+     * @param teamColor the team to generate moves for
+     * @param moves     list to append to
+     */
+    public void legalMoves(TeamColor teamColor, MoveList moves) {
+        MoveGenerator.generateLegal(board, teamColor, moves);
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -79,7 +137,8 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPiece movingPiece = board.getPiece(move.getStartPosition());
+        int from = Bitboards.square(move.getStartPosition());
+        ChessPiece movingPiece = board.getPiece(from);
         if (movingPiece == null) {
             throw new InvalidMoveException("No piece at the starting position.");
         }
@@ -88,36 +147,43 @@ public class ChessGame {
             throw new InvalidMoveException("It's not your turn.");
         }
 
-        Collection<ChessMove> availableMoves = validMoves(move.getStartPosition());
-
-        if (availableMoves == null || !availableMoves.contains(move)) {
+        int requested = PackedMove.of(move);
+        int legal = PackedMove.NONE;
+        for (int candidate : cachedMoves(movingPiece.getTeamColor()).moves()) {
+            if (PackedMove.sameMove(candidate, requested)) {
+                legal = candidate;
+                break;
+            }
+        }
+        if (legal == PackedMove.NONE) {
             throw new InvalidMoveException("Illegal move attempted.");
         }
+        applyLegal(legal);
+    }
 
-        if (move.getPromotionPiece() != null) {
-            movingPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece());
+    /**
+     * Makes a move already known to be legal for the team to move, passing
+     * the turn and recording the position for the draw rules
+     *
+     * @param legal a packed move as generated, with its flags
+     */
+    void applyLegal(int legal) {
+        boolean irreversible = PackedMove.isCapture(legal)
+                || board.getPiece(PackedMove.from(legal)).getPieceType() == ChessPiece.PieceType.PAWN;
+        long left = getPositionKey();
+        board.doMove(legal);
+        teamTurn = opponent(teamTurn);
+        if (irreversible) {
+            resetHistory();
+        } else {
+            recordPosition(left);
         }
-
-        board.addPiece(move.getEndPosition(), movingPiece);
-        board.addPiece(move.getStartPosition(), null);
-
-        setTeamTurn((getTeamTurn() == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE);
     }
 
 
     public ChessPosition findKing(TeamColor teamColor) {
-        for (int y = 1; y <= 8; y++) {
-            for (int x = 1; x <= 8; x++) {
-                ChessPiece currPiece = board.getPiece(new ChessPosition(y, x));
-
-                if (currPiece != null &&
-                        currPiece.getTeamColor() == teamColor &&
-                        currPiece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return new ChessPosition(y, x);
-                }
-            }
-        }
-        return null;
+        int king = board.getKingSquare(teamColor);
+        return king < 0 ? null : Bitboards.position(king);
     }
 
     /**
@@ -127,25 +193,8 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKing(teamColor);
-        if (kingPosition == null) {
-            return false;
-        }
-
-        for (int y = 1; y <= 8; y++) {
-            for (int x = 1; x <= 8; x++) {
-                ChessPiece opponentPiece = board.getPiece(new ChessPosition(y, x));
-                if (opponentPiece == null || opponentPiece.getTeamColor() == teamColor) {continue;} // Skip irrelevant pieces
-
-                Collection<ChessMove> possibleMoves = opponentPiece.pieceMoves(board, new ChessPosition(y, x)); // Extracted outside
-                for (ChessMove move : possibleMoves) {
-                    if (move.getEndPosition().equals(kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        int king = board.getKingSquare(teamColor);
+        return king >= 0 && board.isSquareAttacked(king, opponent(teamColor));
     }
 
 
@@ -157,20 +206,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        for (int y = 1; y <= 8; y++) {
-            for (int x = 1; x <= 8; x++) {
-                ChessPiece currPiece = board.getPiece(new ChessPosition(y, x));
-                if (currPiece != null && currPiece.getTeamColor() == teamColor) {
-                    if (!validMoves(new ChessPosition(y, x)).isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return getStatus(teamColor) == GameStatus.CHECKMATE;
     }
 
 
@@ -182,21 +218,180 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        //check to see if player has no valid moves for any of its pieces thus leading to stalemate
-        if (isInCheckmate(teamColor)) {
-            return false;
+        return getStatus(teamColor) == GameStatus.STALEMATE;
+    }
+
+    /**
+     * Gets the status of the team whose turn it is
+     *
+     * @return whether the team to move is in check, checkmate, stalemate or none
+     * of those
+     */
+    public GameStatus getStatus() {
+        return getStatus(teamTurn);
+    }
+
+    /**
+     * Determines whether the given team is in check, checkmate or stalemate,
+     * or whether the game is drawn by insufficient material, repetition or the
+     * fifty-move rule. Checkmate and stalemate take precedence over the draws.
+     * <p>
+     * The move-based status is looked up in the shared {@link PositionCache}.
+     * On a miss it is worked out with {@link MoveGenerator#hasLegalMove},
+     * which stops at the first legal move, and nothing is cached; the legal
+     * moves are only generated and cached when {@link #validMoves} or
+     * {@link #makeMove} need them.
+     *
+     * @param teamColor which team to get the status of
+     * @return the team's status
+     */
+    public GameStatus getStatus(TeamColor teamColor) {
+        GameStatus status = moveStatus(teamColor);
+        if (status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE) {
+            return status;
+        }
+        if (board.isInsufficientMaterial()) {
+            return GameStatus.DRAW_INSUFFICIENT_MATERIAL;
+        }
+        if (isRepetition()) {
+            return GameStatus.DRAW_REPETITION;
+        }
+        if (halfmoveClock >= FIFTY_MOVE_PLIES) {
+            return GameStatus.DRAW_FIFTY_MOVE;
+        }
+        return status;
+    }
+
+    /**
+     * @return true if the current position has occurred three times since the
+     * last capture or pawn move, with the same team to move
+     */
+    public boolean isRepetition() {
+        int mask = history.length - 1;
+        long current = getPositionKey();
+        int oldest = Math.max(0, halfmoveClock - mask);
+        int seen = 1;
+        for (int ply = halfmoveClock - 2; ply >= oldest; ply -= 2) {
+            if (history[ply & mask] == current && ++seen == 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of moves made since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the keys of the positions since the last capture or pawn move,
+     * oldest first, as far back as they are kept
+     */
+    public long[] getHistory() {
+        int mask = history.length - 1;
+        int oldest = Math.max(0, halfmoveClock - mask);
+        long[] keys = new long[halfmoveClock - oldest + 1];
+        for (int ply = oldest; ply < halfmoveClock; ply++) {
+            keys[ply - oldest] = history[ply & mask];
         }
-        for (int y = 1; y <= 8; y++) {
-            for (int x = 1; x <= 8; x++) {
-                ChessPiece currPiece = board.getPiece(new ChessPosition(y, x));
-                if (currPiece != null && currPiece.getTeamColor() == teamColor) {
-                    if(validMoves(new ChessPosition(y, x)).size() != 0) {
-                        return false;
-                    }
-                }
+        keys[keys.length - 1] = getPositionKey();
+        return keys;
+    }
+
+    /**
+     * Restores the history written by {@link #getHistory()}
+     *
+     * @param halfmoveClock moves since the last capture or pawn move
+     * @param keys          the most recent position keys, oldest first, ending
+     *                      with the current position
+     */
+    void setHistory(int halfmoveClock, long[] keys) {
+        if (keys.length == 0 || keys.length > halfmoveClock + 1) {
+            throw new IllegalArgumentException("History of " + keys.length + " positions does not match "
+                    + halfmoveClock + " moves since the last capture or pawn move");
+        }
+        int capacity = Math.min(MAX_HISTORY, Integer.highestOneBit(Math.max(8, keys.length) - 1) << 1);
+        history = new long[capacity];
+        this.halfmoveClock = halfmoveClock;
+        int first = halfmoveClock - keys.length + 1;
+        for (int i = Math.max(0, keys.length - capacity); i < keys.length; i++) {
+            history[(first + i) & (capacity - 1)] = keys[i];
+        }
+    }
+
+    private void resetHistory() {
+        halfmoveClock = 0;
+    }
+
+    /**
+     * @param left the key of the position the last move was made from
+     */
+    private void recordPosition(long left) {
+        if (halfmoveClock + 1 == history.length && history.length < MAX_HISTORY) {
+            history = Arrays.copyOf(history, history.length * 2);
+        }
+        history[halfmoveClock & (history.length - 1)] = left;
+        halfmoveClock++;
+    }
+
+    /**
+     * @return check, checkmate, stalemate or normal, from the cache if the
+     * position is there
+     */
+    private GameStatus moveStatus(TeamColor teamColor) {
+        PositionCache.Entry entry = PositionCache.shared().get(positionKey(teamColor), board.getOccupied());
+        if (entry != null) {
+            return entry.status();
+        }
+        boolean inCheck = isInCheck(teamColor);
+        if (MoveGenerator.hasLegalMove(board, teamColor)) {
+            return inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+        }
+        return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+    }
+
+    private PositionCache.Entry cachedMoves(TeamColor teamColor) {
+        long key = positionKey(teamColor);
+        long occupied = board.getOccupied();
+        PositionCache cache = PositionCache.shared();
+        PositionCache.Entry entry = cache.get(key, occupied);
+        if (entry == null) {
+            MoveList moves = BUFFER.get();
+            moves.clear();
+            legalMoves(teamColor, moves);
+            boolean inCheck = isInCheck(teamColor);
+            GameStatus status;
+            if (moves.isEmpty()) {
+                status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            } else {
+                status = inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
             }
+            entry = new PositionCache.Entry(moves.toArray(), status);
+            cache.put(key, occupied, entry);
         }
-       return true;
+        return entry;
+    }
+
+    private long positionKey(TeamColor teamColor) {
+        return board.getKey() ^ board.getRuleKey() ^ Zobrist.side(teamColor);
+    }
+
+    /**
+     * @return the Zobrist key of the position, covering the pieces on the board,
+     * the castling rights, the en passant square and the team to move
+     */
+    public long getPositionKey() {
+        return positionKey(teamTurn);
+    }
+
+    /**
+     * @return the other team
+     */
+    public static TeamColor opponent(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -206,6 +401,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        resetHistory();
     }
     /**
      * Gets the current chessboard
@@ -216,6 +412,35 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Copies the game for analysis or speculative moves that should not touch
+     * this one. The board and the repetition history are copied, a few
+     * hundred bytes of primitives in all, and this game is only read, so
+     * several threads may fork it at once as long as none is moving it. A
+     * fork shares nothing with this game and may be handed to another thread.
+     *
+     * @return a game in the same position with the same history, which moves
+     * independently of this one
+     */
+    public ChessGame fork() {
+        return new ChessGame(this);
+    }
+
+    /**
+     * @return a new game at the position described by the FEN, see {@link Fen}
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parseGame(fen);
+    }
+
+    /**
+     * @return the game's position in FEN
+     */
+    public String toFen() {
+        return Fen.toFen(this);
+    }
+
     public boolean isOver() {
         return gameOver;
     }
@@ -229,12 +454,16 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return gameOver == chessGame.gameOver && teamTurn == chessGame.teamTurn && Objects.equals(board, chessGame.board);
+        if (board == null || chessGame.board == null) {
+            return board == chessGame.board && gameOver == chessGame.gameOver && teamTurn == chessGame.teamTurn;
+        }
+        return getPositionKey() == chessGame.getPositionKey() && gameOver == chessGame.gameOver
+                && teamTurn == chessGame.teamTurn && board.equals(chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board, gameOver);
+        return 31 * Long.hashCode(board == null ? 0L : getPositionKey()) + Boolean.hashCode(gameOver);
     }
 
     @Override
@@ -0,0 +1,163 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact, versioned binary encoding of a {@link ChessGame}.
+ * <p>
+ * A game is a {@value #HEADER_SIZE} byte header:
+ * <pre>
+ *  0      version
+ *  1      flags: bit 0 black to move, bit 1 game over
+ *  2      castling rights
+ *  3      en passant square + 1, 0 for none
+ *  4-5    halfmove clock
+ *  6-37   one nibble per square, low nibble first: 0 for empty, otherwise
+ *         the piece index + 1 (see {@link ChessBoard})
+ * </pre>
+ * followed by the repetition history: one byte holding the number of
+ * position keys, then the keys as longs, oldest first. These are the
+ * positions left since the last capture or pawn move; the current position's
+ * key is worked out again when read. A game just after a capture or pawn move
+ * takes 39 bytes, and each move since adds 8, up to about 1 KB when the
+ * history is full.
+ * <p>
+ * The encoder and decoder work directly on the buffer's position, so callers
+ * can place a game inside a larger message or a column value without
+ * copying.
+ */
+public final class ChessGameCodec {
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = 38;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 1 << 1;
+
+    private ChessGameCodec() {}
+
+    /**
+     * @return the number of bytes {@link #encode(ChessGame, ByteBuffer)}
+     * writes for the game
+     */
+    public static int encodedSize(ChessGame game) {
+        return encodedSize(game.getHistory());
+    }
+
+    /**
+     * @return a new array holding the encoded game
+     */
+    public static byte[] encode(ChessGame game) {
+        long[] history = game.getHistory();
+        ByteBuffer out = ByteBuffer.allocate(encodedSize(history));
+        encode(game, history, out);
+        return out.array();
+    }
+
+    /**
+     * Writes the game at the buffer's position and advances it by
+     * {@link #encodedSize(ChessGame)} bytes.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has too little
+     *                                          room left
+     */
+    public static void encode(ChessGame game, ByteBuffer out) {
+        encode(game, game.getHistory(), out);
+    }
+
+    // the history ends with the current position, which is not written
+    private static int encodedSize(long[] history) {
+        return HEADER_SIZE + 1 + Long.BYTES * (history.length - 1);
+    }
+
+    private static void encode(ChessGame game, long[] history, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                | (game.isOver() ? GAME_OVER : 0);
+        out.put(VERSION);
+        out.put((byte) flags);
+        out.put((byte) board.getCastlingRights());
+        out.put((byte) (board.getEnPassantSquare() + 1));
+        out.putShort((short) game.getHalfmoveClock());
+        for (int square = 0; square < 64; square += 2) {
+            int low = board.pieceIndexAt(square) + 1;
+            int high = board.pieceIndexAt(square + 1) + 1;
+            out.put((byte) (low | (high << 4)));
+        }
+        out.put((byte) (history.length - 1));
+        for (int i = 0; i < history.length - 1; i++) {
+            out.putLong(history[i]);
+        }
+    }
+
+    /**
+     * @return the game encoded in the array
+     * @throws IllegalArgumentException if the data is not a valid encoding
+     */
+    public static ChessGame decode(byte[] data) {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reads a game at the buffer's position and advances it past the
+     * encoding.
+     *
+     * @throws IllegalArgumentException if the data is not a valid encoding
+     */
+    public static ChessGame decode(ByteBuffer in) {
+        if (in.remaining() < HEADER_SIZE + 1) {
+            throw new IllegalArgumentException("Encoded game is too short: " + in.remaining() + " bytes");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported game encoding version " + version);
+        }
+        int flags = in.get();
+        int castlingRights = in.get();
+        int enPassant = (in.get() & 0xFF) - 1;
+        int halfmoveClock = in.getShort() & 0xFFFF;
+        if (enPassant >= 64) {
+            throw new IllegalArgumentException("Invalid en passant square " + enPassant);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int packed = in.get() & 0xFF;
+            placeNibble(board, square, packed & 15);
+            placeNibble(board, square + 1, packed >>> 4);
+        }
+        board.setCastlingRights(castlingRights);
+        board.setEnPassantSquare(enPassant);
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setOver((flags & GAME_OVER) != 0);
+        game.setHistory(halfmoveClock, readHistory(in, game.getPositionKey()));
+        return game;
+    }
+
+    /**
+     * @return the keys read, followed by the current position's
+     */
+    private static long[] readHistory(ByteBuffer in, long current) {
+        int count = in.get() & 0xFF;
+        if (in.remaining() < Long.BYTES * count) {
+            throw new IllegalArgumentException("Encoded game history is too short");
+        }
+        long[] keys = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            keys[i] = in.getLong();
+        }
+        keys[count] = current;
+        return keys;
+    }
+
+    private static void placeNibble(ChessBoard board, int square, int nibble) {
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Invalid piece code " + nibble + " on square " + square);
+        }
+        if (nibble != 0) {
+            board.placePiece(square, nibble - 1);
+        }
+    }
+}
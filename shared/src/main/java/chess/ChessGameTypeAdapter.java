@@ -0,0 +1,90 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads and writes a {@link ChessGame} in the layout Gson produced from its
+ * fields, {@code teamTurn}, {@code board} and {@code gameOver}, plus the
+ * draw rule state: {@code halfmoveClock} and, when it is not zero,
+ * {@code history}, the keys of the positions left since the last capture or
+ * pawn move, oldest first. The current position's key is worked out again
+ * when read, so a game just after a capture or pawn move carries no keys at
+ * all. Games stored without the draw rule state start with a fresh history.
+ */
+class ChessGameTypeAdapter extends TypeAdapter<ChessGame> {
+    private static final ChessBoardTypeAdapter BOARD_ADAPTER = new ChessBoardTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        out.beginObject();
+        out.name("teamTurn").value(game.getTeamTurn().name());
+        out.name("board");
+        BOARD_ADAPTER.write(out, game.getBoard());
+        out.name("gameOver").value(game.isOver());
+        int halfmoveClock = game.getHalfmoveClock();
+        out.name("halfmoveClock").value(halfmoveClock);
+        if (halfmoveClock > 0) {
+            long[] keys = game.getHistory();
+            out.name("history");
+            out.beginArray();
+            // all but the current position's
+            for (int i = 0; i < keys.length - 1; i++) {
+                out.value(keys[i]);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        ChessGame game = new ChessGame();
+        ChessBoard board = null;
+        int halfmoveClock = 0;
+        long[] keys = new long[0];
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "teamTurn" -> game.setTeamTurn(ChessGame.TeamColor.valueOf(in.nextString()));
+                case "board" -> board = in.peek() == JsonToken.NULL ? null : BOARD_ADAPTER.read(in);
+                case "gameOver" -> game.setOver(in.nextBoolean());
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "history" -> keys = readKeys(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (board == null) {
+            throw new IOException("Chess game is missing its board");
+        }
+        if (halfmoveClock < 0 || keys.length > halfmoveClock) {
+            throw new IOException("History of " + keys.length + " positions does not match " + halfmoveClock
+                    + " moves since the last capture or pawn move");
+        }
+        game.setBoard(board);
+        long[] history = Arrays.copyOf(keys, keys.length + 1);
+        history[keys.length] = game.getPositionKey();
+        game.setHistory(halfmoveClock, history);
+        return game;
+    }
+
+    private static long[] readKeys(JsonReader in) throws IOException {
+        long[] keys = new long[8];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(keys, count);
+    }
+}
@@ -1,5 +1,7 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Objects;
 
 /**
@@ -7,8 +9,46 @@ import java.util.Objects;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Every move a piece could make on an empty board, including pawn
+ * promotions, has a canonical instance returned by {@link #of} and by JSON
+ * deserialization. Other moves are allocated as before.
  */
+@JsonAdapter(ChessMoveTypeAdapter.class)
 public class ChessMove {
+    // indexed by (from * 64 + to) * 7 + promotion ordinal + 1, null for
+    // moves no piece can make
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * 7];
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT
+    };
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                int rows = Math.abs(Bitboards.row(to) - Bitboards.row(from));
+                int cols = Math.abs(Bitboards.column(to) - Bitboards.column(from));
+                boolean line = rows == 0 || cols == 0 || rows == cols;
+                boolean knight = rows * cols == 2;
+                if (from == to || !(line || knight)) {
+                    continue;
+                }
+                ChessPosition start = ChessPosition.of(from);
+                ChessPosition end = ChessPosition.of(to);
+                MOVES[index(from, to, null)] = new ChessMove(start, end, null);
+                int fromRow = Bitboards.row(from);
+                int toRow = Bitboards.row(to);
+                boolean promotes = cols <= 1 && (fromRow == 7 && toRow == 8 || fromRow == 2 && toRow == 1);
+                if (promotes) {
+                    for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                        MOVES[index(from, to, promotion)] = new ChessMove(start, end, promotion);
+                    }
+                }
+            }
+        }
+    }
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -19,6 +59,32 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * @return the canonical instance of the move, or a new move if no piece
+     * can make it
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (startPosition == null || endPosition == null) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        ChessMove move = MOVES[index(Bitboards.square(startPosition), Bitboards.square(endPosition), promotionPiece)];
+        return move != null ? move : new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+
+    /**
+     * @param from square index, see {@link Bitboards}
+     * @param to   square index
+     */
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        ChessMove move = MOVES[index(from, to, promotionPiece)];
+        return move != null ? move : new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+    }
+
+    private static int index(int from, int to, ChessPiece.PieceType promotionPiece) {
+        return (from * 64 + to) * 7 + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -50,6 +116,9 @@ public class ChessMove {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
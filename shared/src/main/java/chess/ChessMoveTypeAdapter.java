@@ -0,0 +1,63 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a {@link ChessMove} as
+ * {@code {"startPosition":..,"endPosition":..,"promotionPiece":..}}, the
+ * layout Gson produced from its fields, resolving to the canonical instance.
+ * A missing promotion piece is left out, as Gson does for null fields.
+ */
+class ChessMoveTypeAdapter extends TypeAdapter<ChessMove> {
+    private static final ChessPositionTypeAdapter POSITION_ADAPTER = new ChessPositionTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessMove move) throws IOException {
+        if (move == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("startPosition");
+        POSITION_ADAPTER.write(out, move.getStartPosition());
+        out.name("endPosition");
+        POSITION_ADAPTER.write(out, move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            out.name("promotionPiece").value(move.getPromotionPiece().name());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessMove read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessPosition start = null;
+        ChessPosition end = null;
+        ChessPiece.PieceType promotion = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "startPosition" -> start = POSITION_ADAPTER.read(in);
+                case "endPosition" -> end = POSITION_ADAPTER.read(in);
+                case "promotionPiece" -> {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        promotion = ChessPiece.PieceType.valueOf(in.nextString());
+                    }
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return ChessMove.of(start, end, promotion);
+    }
+}
@@ -1,16 +1,30 @@
 package chess;
 
-import java.util.ArrayList;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * There is one canonical instance per color and type, returned by
+ * {@link #of}, by the board and by JSON deserialization.
  */
+@JsonAdapter(ChessPieceTypeAdapter.class)
 public class ChessPiece {
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[ChessBoard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -19,8 +33,26 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * @return the canonical piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[ChessBoard.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * @param index piece index, see {@link ChessBoard}
+     * @return the canonical piece with the index
+     */
+    static ChessPiece of(int index) {
+        return PIECES[index];
+    }
+
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -30,7 +62,8 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        // same value as Objects.hash(pieceColor, type), without the varargs array
+        return 31 * (31 + (pieceColor == null ? 0 : pieceColor.hashCode())) + (type == null ? 0 : type.hashCode());
     }
 
     /**
@@ -67,15 +100,7 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        PieceMoves moves = switch(getPieceType()) {
-            case BISHOP -> new BishopMoves();
-            case KING -> new KingMoves();
-            case QUEEN -> new QueenMoves();
-            case ROOK -> new RookMoves();
-            case PAWN -> new PawnMoves();
-            case KNIGHT -> new KnightMoves();
-        };
-        return moves.pieceMoves(board, myPosition);
+        return BitboardMoves.INSTANCE.pieceMoves(board, myPosition);
     }
 
 }
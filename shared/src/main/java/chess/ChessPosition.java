@@ -1,14 +1,27 @@
 package chess;
 
-import java.util.Objects;
+import com.google.gson.annotations.JsonAdapter;
 
 /**
  * Represents a single square position on a chess board
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * There is one canonical instance per square, returned by {@link #of} and by
+ * JSON deserialization. The constructor still works, so positions must be
+ * compared with {@link #equals}, which checks identity first.
  */
+@JsonAdapter(ChessPositionTypeAdapter.class)
 public class ChessPosition {
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int col;
     public ChessPosition(int row, int col) {
@@ -20,6 +33,25 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * @return the canonical position for the row and column
+     * @throws IllegalArgumentException if the row or column is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Invalid chess position. Rows and columns must be between 1 and 8.");
+        }
+        return SQUARES[(row - 1) * 8 + col - 1];
+    }
+
+    /**
+     * @param square square index, see {@link Bitboards}
+     * @return the canonical position for the square
+     */
+    static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -43,6 +75,9 @@ public class ChessPosition {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -52,6 +87,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        // same value as Objects.hash(row, col), without the varargs array
+        return 31 * (31 + row) + col;
     }
 }
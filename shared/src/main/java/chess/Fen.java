@@ -0,0 +1,386 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation.
+ * <p>
+ * Parsing walks the text once, character by character, and places pieces
+ * straight onto a new board. A record ends at the end of the input or at a
+ * line break, so a buffer holding one FEN per line can be imported by
+ * calling {@link #parseGame(ByteBuffer)} until it is empty. Trailing fields
+ * may be left out; the side to move then defaults to white.
+ * <p>
+ * Castling rights are written only while their king and rook are at home,
+ * and the en passant square only while a pawn can capture onto it. The
+ * game does not count full moves, so that field is checked for syntax but
+ * ignored, and written as {@code 1}. The halfmove clock is read and
+ * written, but the positions before it are unknown, so repetitions are only
+ * counted from the parsed position on.
+ */
+public final class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // piece letters in piece index order, see ChessBoard
+    private static final String PIECE_CHARS = "KQBNRPkqbnrp";
+    // castling letters in the order of the rights' bits, see ChessBoard
+    private static final String CASTLING_CHARS = "KQkq";
+
+    private Fen() {}
+
+    /**
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static ChessGame parseGame(CharSequence fen) {
+        return parseGame(new Cursor(fen, 0));
+    }
+
+    /**
+     * Parses the ASCII encoded FEN at the buffer's position and advances the
+     * buffer past it and its line break, if any.
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static ChessGame parseGame(ByteBuffer fen) {
+        Cursor cursor = new Cursor(new AsciiView(fen), 0);
+        ChessGame game = parseGame(cursor);
+        fen.position(fen.position() + cursor.skipLineBreak());
+        return game;
+    }
+
+    /**
+     * Parses only the piece placement, ignoring any fields after it
+     *
+     * @throws IllegalArgumentException if the placement is not valid
+     */
+    public static ChessBoard parseBoard(CharSequence fen) {
+        return parsePlacement(new Cursor(fen, 0));
+    }
+
+    public static String toFen(ChessGame game) {
+        StringBuilder out = new StringBuilder(90);
+        write(game, out);
+        return out.toString();
+    }
+
+    public static String toFen(ChessBoard board) {
+        StringBuilder out = new StringBuilder(72);
+        write(board, out);
+        return out.toString();
+    }
+
+    public static void write(ChessGame game, StringBuilder out) {
+        write(game, (Sink) out::append);
+    }
+
+    /**
+     * Writes the FEN as ASCII at the buffer's position, without a line break
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has too little
+     *                                          room left
+     */
+    public static void write(ChessGame game, ByteBuffer out) {
+        write(game, c -> out.put((byte) c));
+    }
+
+    /**
+     * Writes only the piece placement field
+     */
+    public static void write(ChessBoard board, StringBuilder out) {
+        writePlacement(board, out::append);
+    }
+
+    private static void write(ChessGame game, Sink out) {
+        writePlacement(game.getBoard(), out);
+        out.put(' ');
+        out.put(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 'b' : 'w');
+        out.put(' ');
+        int rights = game.getBoard().getCastlingRights();
+        if (rights == 0) {
+            out.put('-');
+        }
+        for (int i = 0; i < CASTLING_CHARS.length(); i++) {
+            if ((rights & (1 << i)) != 0) {
+                out.put(CASTLING_CHARS.charAt(i));
+            }
+        }
+        out.put(' ');
+        int enPassant = game.getBoard().getEnPassantSquare();
+        if (enPassant < 0) {
+            out.put('-');
+        } else {
+            out.put((char) ('a' + (enPassant & 7)));
+            out.put((char) ('1' + (enPassant >>> 3)));
+        }
+        out.put(' ');
+        writeNumber(game.getHalfmoveClock(), out);
+        out.put(' ');
+        out.put('1');
+    }
+
+    private static void writeNumber(int value, Sink out) {
+        if (value >= 10) {
+            writeNumber(value / 10, out);
+        }
+        out.put((char) ('0' + value % 10));
+    }
+
+    private static void writePlacement(ChessBoard board, Sink out) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int index = board.pieceIndexAt(Bitboards.square(row, col));
+                if (index < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.put((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.put(PIECE_CHARS.charAt(index));
+            }
+            if (empty > 0) {
+                out.put((char) ('0' + empty));
+            }
+            if (row > 1) {
+                out.put('/');
+            }
+        }
+    }
+
+    private static ChessGame parseGame(Cursor in) {
+        ChessBoard board = parsePlacement(in);
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        if (in.nextField()) {
+            char side = in.next();
+            if (side == 'b') {
+                turn = ChessGame.TeamColor.BLACK;
+            } else if (side != 'w') {
+                throw in.error("side to move must be 'w' or 'b'");
+            }
+            in.endField();
+        }
+        if (in.nextField()) {
+            board.setCastlingRights(parseCastling(in));
+        }
+        if (in.nextField()) {
+            board.setEnPassantSquare(parseEnPassant(in));
+        }
+        int halfmoveClock = 0;
+        if (in.nextField()) {
+            halfmoveClock = parseNumber(in);
+        }
+        if (in.nextField()) {
+            parseNumber(in);
+        }
+        if (in.nextField()) {
+            throw in.error("unexpected text after the fullmove number");
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setHistory(halfmoveClock, new long[]{game.getPositionKey()});
+        return game;
+    }
+
+    private static ChessBoard parsePlacement(Cursor in) {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        while (!in.atFieldEnd()) {
+            char c = in.next();
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw in.error("rank " + row + " does not have eight squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 9) {
+                    throw in.error("rank " + row + " has more than eight squares");
+                }
+            } else {
+                int index = PIECE_CHARS.indexOf(c);
+                if (index < 0) {
+                    throw in.error("unknown piece '" + c + "'");
+                }
+                if (col > 8) {
+                    throw in.error("rank " + row + " has more than eight squares");
+                }
+                board.placePiece(Bitboards.square(row, col), index);
+                col++;
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw in.error("piece placement does not cover the whole board");
+        }
+        return board;
+    }
+
+    private static int parseCastling(Cursor in) {
+        int rights = 0;
+        if (in.peek() == '-') {
+            in.next();
+        } else {
+            while (!in.atFieldEnd()) {
+                int right = CASTLING_CHARS.indexOf(in.next());
+                if (right < 0 || (rights & (1 << right)) != 0) {
+                    throw in.error("invalid castling rights");
+                }
+                rights |= 1 << right;
+            }
+        }
+        in.endField();
+        return rights;
+    }
+
+    private static int parseEnPassant(Cursor in) {
+        int square = -1;
+        if (in.peek() == '-') {
+            in.next();
+        } else {
+            char file = in.next();
+            char rank = in.atFieldEnd() ? 0 : in.next();
+            if (file < 'a' || file > 'h' || (rank != '3' && rank != '6')) {
+                throw in.error("invalid en passant square");
+            }
+            square = Bitboards.square(rank - '0', file - 'a' + 1);
+        }
+        in.endField();
+        return square;
+    }
+
+    private static int parseNumber(Cursor in) {
+        int value = 0;
+        int digits = 0;
+        while (!in.atFieldEnd()) {
+            char c = in.next();
+            if (c < '0' || c > '9' || ++digits > 4) {
+                throw in.error("invalid move number");
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    private interface Sink {
+        void put(char c);
+    }
+
+    /**
+     * Position within the text being parsed. Fields are separated by spaces
+     * and the record ends at the end of the text or a line break.
+     */
+    private static final class Cursor {
+        private final CharSequence text;
+        private int index;
+
+        Cursor(CharSequence text, int index) {
+            this.text = text;
+            this.index = index;
+        }
+
+        boolean atRecordEnd() {
+            return index >= text.length() || text.charAt(index) == '\n' || text.charAt(index) == '\r';
+        }
+
+        boolean atFieldEnd() {
+            return atRecordEnd() || text.charAt(index) == ' ';
+        }
+
+        char peek() {
+            if (atFieldEnd()) {
+                throw error("field is empty");
+            }
+            return text.charAt(index);
+        }
+
+        char next() {
+            char c = peek();
+            index++;
+            return c;
+        }
+
+        /**
+         * Skips the spaces before the next field
+         *
+         * @return true if there is another field in this record
+         */
+        boolean nextField() {
+            while (index < text.length() && text.charAt(index) == ' ') {
+                index++;
+            }
+            return !atRecordEnd();
+        }
+
+        void endField() {
+            if (!atFieldEnd()) {
+                throw error("unexpected '" + text.charAt(index) + "'");
+            }
+        }
+
+        /**
+         * @return the number of characters consumed, including one line break
+         */
+        int skipLineBreak() {
+            if (index < text.length() && text.charAt(index) == '\r') {
+                index++;
+            }
+            if (index < text.length() && text.charAt(index) == '\n') {
+                index++;
+            }
+            return index;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid FEN at index " + index + ": " + message);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer as ASCII characters without
+     * copying or moving its position.
+     */
+    private static final class AsciiView implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int length;
+
+        AsciiView(ByteBuffer buffer) {
+            this(buffer, buffer.position(), buffer.remaining());
+        }
+
+        private AsciiView(ByteBuffer buffer, int start, int length) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new AsciiView(buffer, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                text.append(charAt(i));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Validates and makes many moves at once, for bulk work such as importing
+ * games, verifying replays or re-checking stored games on the server.
+ * <p>
+ * The items are split between the workers of a fork/join pool. Each move is
+ * checked against the legal moves of its piece alone, without the shared
+ * {@link PositionCache}, so a batch of one-off positions neither contends
+ * on nor floods the cache that interactive play relies on. The games passed
+ * in are only read, so one game may appear many times in a batch, and moves
+ * are made on {@link ChessGame#fork() forks}. No other thread may move those
+ * games while the batch runs.
+ */
+public final class MoveBatch {
+    // items per task; a move takes a few hundred nanoseconds and a replayed
+    // game a few hundred moves
+    private static final int MOVE_BLOCK = 512;
+    private static final int GAME_BLOCK = 8;
+
+    // scratch space for move generation, confined to the calling thread
+    private static final ThreadLocal<MoveList> BUFFER = ThreadLocal.withInitial(MoveList::new);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * What became of a move
+     */
+    public enum Status {
+        APPLIED,
+        NO_PIECE,
+        WRONG_TURN,
+        ILLEGAL,
+        GAME_OVER
+    }
+
+    /**
+     * @param status what became of the move
+     * @param game   the game after the move, or null if it was not made
+     */
+    public record Result(Status status, ChessGame game) {
+    }
+
+    public MoveBatch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return a batch running on the common fork/join pool
+     */
+    public static MoveBatch common() {
+        return new MoveBatch(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Makes each move in the game at the same index
+     *
+     * @param games the positions to move in, which may repeat
+     * @param moves one move for each game
+     * @return one result for each move, in order
+     * @throws IllegalArgumentException if there are not as many moves as games
+     */
+    public List<Result> apply(List<ChessGame> games, List<ChessMove> moves) {
+        if (games.size() != moves.size()) {
+            throw new IllegalArgumentException(games.size() + " games but " + moves.size() + " moves");
+        }
+        Result[] results = new Result[games.size()];
+        run(results.length, MOVE_BLOCK, i -> {
+            ChessGame game = games.get(i).fork();
+            Status status = apply(game, moves.get(i));
+            results[i] = new Result(status, status == Status.APPLIED ? game : null);
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Plays each line of moves from its starting position, stopping at the
+     * first move that cannot be made
+     *
+     * @param starts the position each line starts from
+     * @param lines  the moves of each game, in order
+     * @return for each line, how many of its moves were made; a line is valid
+     * when this equals its length
+     * @throws IllegalArgumentException if there are not as many lines as starts
+     */
+    public int[] replay(List<ChessGame> starts, List<List<ChessMove>> lines) {
+        if (starts.size() != lines.size()) {
+            throw new IllegalArgumentException(starts.size() + " starting positions but " + lines.size()
+                    + " lines");
+        }
+        int[] played = new int[lines.size()];
+        run(played.length, GAME_BLOCK, i -> {
+            ChessGame game = starts.get(i).fork();
+            List<ChessMove> line = lines.get(i);
+            int ply = 0;
+            while (ply < line.size() && apply(game, line.get(ply)) == Status.APPLIED) {
+                ply++;
+            }
+            played[i] = ply;
+        });
+        return played;
+    }
+
+    /**
+     * Makes the move in the game if it is legal
+     *
+     * @return whether the move was made, or why not
+     */
+    static Status apply(ChessGame game, ChessMove move) {
+        if (game.isOver()) {
+            return Status.GAME_OVER;
+        }
+        ChessBoard board = game.getBoard();
+        int from = Bitboards.square(move.getStartPosition());
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
+            return Status.NO_PIECE;
+        }
+        if (piece.getTeamColor() != game.getTeamTurn()) {
+            return Status.WRONG_TURN;
+        }
+        MoveList legal = BUFFER.get();
+        legal.clear();
+        MoveGenerator.generateLegal(board, from, legal);
+        int requested = PackedMove.of(move);
+        for (int i = 0; i < legal.size(); i++) {
+            if (PackedMove.sameMove(legal.get(i), requested)) {
+                game.applyLegal(legal.get(i));
+                return Status.APPLIED;
+            }
+        }
+        return Status.ILLEGAL;
+    }
+
+    private void run(int size, int block, IntConsumer item) {
+        if (size <= block) {
+            for (int i = 0; i < size; i++) {
+                item.accept(i);
+            }
+        } else {
+            pool.invoke(new Split(0, size, block, item));
+        }
+    }
+
+    private static final class Split extends RecursiveAction {
+        private final int start;
+        private final int end;
+        private final int block;
+        private final IntConsumer item;
+
+        Split(int start, int end, int block, IntConsumer item) {
+            this.start = start;
+            this.end = end;
+            this.block = block;
+            this.item = item;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= block) {
+                for (int i = start; i < end; i++) {
+                    item.accept(i);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new Split(start, middle, block, item), new Split(middle, end, block, item));
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package chess;
+
+/**
+ * Move generation into {@link MoveList}s of {@link PackedMove}s. The
+ * {@code generate} methods produce pseudo-legal moves, which follow piece
+ * movement rules but may leave the mover's own king in check. The
+ * {@code generateLegal} methods work out checkers and pinned pieces once per
+ * position and emit only legal moves. Nothing is allocated per generated
+ * move.
+ * <p>
+ * Castling and en passant depend on the board's rule state rather than on
+ * piece movement alone, so they are produced by the team-wide methods and
+ * by {@code generateLegal} for a single square, but not by
+ * {@link #generate(ChessBoard, int, MoveList)}, which backs
+ * {@link ChessPiece#pieceMoves}.
+ */
+public final class MoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT
+    };
+    private static final long PROMOTION_RANKS = Bitboards.RANK_1 | Bitboards.RANK_8;
+
+    private MoveGenerator() {}
+
+    /**
+     * Adds every pseudo-legal move for the given team to the list.
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        for (long own = board.getTeamPieces(color); own != 0; own &= own - 1) {
+            generate(board, Bitboards.first(own), moves);
+        }
+        int king = board.getKingSquare(color);
+        if (king >= 0 && !board.isSquareAttacked(king, ChessGame.opponent(color))) {
+            addCastling(board, color, king, moves);
+        }
+        addEnPassant(board, color, -1, -1L, moves);
+    }
+
+    /**
+     * Adds every pseudo-legal move for the piece on the square to the list,
+     * following its movement rules only, without castling or en passant.
+     * Does nothing if the square is empty.
+     */
+    public static void generate(ChessBoard board, int from, MoveList moves) {
+        ChessPiece piece = board.getPiece(from);
+        if (piece != null) {
+            emit(board, from, piece, targets(board, from, piece), moves);
+        }
+    }
+
+    /**
+     * Adds every legal move for the given team to the list.
+     */
+    public static void generateLegal(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        int king = board.getKingSquare(color);
+        if (king < 0) {
+            generate(board, color, moves);
+            return;
+        }
+        long checkers = board.getAttackers(king, ChessGame.opponent(color));
+        long checkMask = checkMask(king, checkers);
+        long pinned = board.getPinned(color);
+        for (long own = board.getTeamPieces(color); own != 0; own &= own - 1) {
+            generateLegal(board, Bitboards.first(own), king, checkMask, pinned, moves);
+        }
+        if (checkers == 0) {
+            addCastling(board, color, king, moves);
+        }
+        addEnPassant(board, color, king, -1L, moves);
+    }
+
+    /**
+     * Adds every legal move for the piece on the square to the list. Does
+     * nothing if the square is empty.
+     */
+    public static void generateLegal(ChessBoard board, int from, MoveList moves) {
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
+            return;
+        }
+        ChessGame.TeamColor color = piece.getTeamColor();
+        int king = board.getKingSquare(color);
+        if (king < 0) {
+            generate(board, from, moves);
+            return;
+        }
+        long checkers = board.getAttackers(king, ChessGame.opponent(color));
+        generateLegal(board, from, king, checkMask(king, checkers), board.getPinned(color), moves);
+        if (from == king && checkers == 0) {
+            addCastling(board, color, king, moves);
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            addEnPassant(board, color, king, 1L << from, moves);
+        }
+    }
+
+    private static void generateLegal(ChessBoard board, int from, int king, long checkMask, long pinned,
+                                      MoveList moves) {
+        ChessPiece piece = board.getPiece(from);
+        emit(board, from, piece, legalTargets(board, from, piece, king, checkMask, pinned), moves);
+    }
+
+    /**
+     * Determines whether the team has at least one legal move, stopping at the
+     * first piece that has one. The king is tried first since it is the piece
+     * most likely to have a move when the position is close to mate.
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color) {
+        int king = board.getKingSquare(color);
+        long own = board.getTeamPieces(color);
+        if (king < 0) {
+            for (; own != 0; own &= own - 1) {
+                int from = Bitboards.first(own);
+                if (targets(board, from, board.getPiece(from)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long checkers = board.getAttackers(king, ChessGame.opponent(color));
+        long checkMask = checkMask(king, checkers);
+        long pinned = board.getPinned(color);
+        if (legalTargets(board, king, board.getPiece(king), king, checkMask, pinned) != 0) {
+            return true;
+        }
+        if (checkMask == 0) {
+            return false;
+        }
+        for (own &= ~(1L << king); own != 0; own &= own - 1) {
+            int from = Bitboards.first(own);
+            if (legalTargets(board, from, board.getPiece(from), king, checkMask, pinned) != 0) {
+                return true;
+            }
+        }
+        // an en passant capture can be the only way out; castling never is,
+        // since the king could then step to the square it passes
+        int target = enPassantTarget(board, color);
+        if (target >= 0) {
+            int victim = ChessBoard.enPassantVictim(target);
+            for (long pawns = enPassantPawns(board, color, target); pawns != 0; pawns &= pawns - 1) {
+                if (enPassantIsLegal(board, color, king, Bitboards.first(pawns), target, victim)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the castling moves the rights and position allow. The caller must
+     * have checked that the king is not in check; the squares the king passes
+     * and lands on must not be attacked, and those between king and rook must
+     * be empty.
+     */
+    private static void addCastling(ChessBoard board, ChessGame.TeamColor color, int king, MoveList moves) {
+        int rights = board.getCastlingRights();
+        int kingside = color == ChessGame.TeamColor.WHITE ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        int queenside = color == ChessGame.TeamColor.WHITE ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE;
+        if ((rights & (kingside | queenside)) == 0) {
+            return;
+        }
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long occupied = board.getOccupied();
+        if ((rights & kingside) != 0 && (Attacks.between(king, king + 3) & occupied) == 0
+                && !board.isSquareAttacked(king + 1, enemy) && !board.isSquareAttacked(king + 2, enemy)) {
+            moves.add(PackedMove.of(king, king + 2) | PackedMove.CASTLE);
+        }
+        if ((rights & queenside) != 0 && (Attacks.between(king, king - 4) & occupied) == 0
+                && !board.isSquareAttacked(king - 1, enemy) && !board.isSquareAttacked(king - 2, enemy)) {
+            moves.add(PackedMove.of(king, king - 2) | PackedMove.CASTLE);
+        }
+    }
+
+    /**
+     * Adds the team's en passant captures by pawns on the given squares. With
+     * a king square, only captures that do not leave the king attacked are
+     * added; with -1 every one is.
+     */
+    private static void addEnPassant(ChessBoard board, ChessGame.TeamColor color, int king, long from,
+                                     MoveList moves) {
+        int target = enPassantTarget(board, color);
+        if (target < 0) {
+            return;
+        }
+        int victim = ChessBoard.enPassantVictim(target);
+        for (long pawns = enPassantPawns(board, color, target) & from; pawns != 0; pawns &= pawns - 1) {
+            int pawn = Bitboards.first(pawns);
+            if (king < 0 || enPassantIsLegal(board, color, king, pawn, target, victim)) {
+                moves.add(PackedMove.of(pawn, target) | PackedMove.CAPTURE | PackedMove.EN_PASSANT);
+            }
+        }
+    }
+
+    /**
+     * @return the board's en passant square if the given team is the one that
+     * may capture onto it, otherwise -1
+     */
+    private static int enPassantTarget(ChessBoard board, ChessGame.TeamColor color) {
+        int target = board.getEnPassantSquare();
+        boolean capturesUp = target >= 40;
+        if (target < 0 || capturesUp != (color == ChessGame.TeamColor.WHITE)) {
+            return -1;
+        }
+        return target;
+    }
+
+    private static long enPassantPawns(ChessBoard board, ChessGame.TeamColor color, int target) {
+        return Attacks.pawn(ChessGame.opponent(color), target) & board.getPieces(color, ChessPiece.PieceType.PAWN);
+    }
+
+    /**
+     * An en passant capture empties two squares on the capturing pawn's rank,
+     * which can uncover a slider on the king, so the king's safety is worked
+     * out against the occupancy after the capture rather than from the pins.
+     */
+    private static boolean enPassantIsLegal(ChessBoard board, ChessGame.TeamColor color, int king, int from,
+                                            int target, int victim) {
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long occupied = (board.getOccupied() ^ (1L << from) ^ (1L << victim)) | (1L << target);
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+        return (Attacks.rook(king, occupied) & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens)) == 0
+                && (Attacks.bishop(king, occupied)
+                        & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens)) == 0
+                && (Attacks.knight(king) & board.getPieces(enemy, ChessPiece.PieceType.KNIGHT)) == 0
+                && (Attacks.pawn(color, king) & board.getPieces(enemy, ChessPiece.PieceType.PAWN)
+                        & ~(1L << victim)) == 0;
+    }
+
+    /**
+     * Works out the legal destinations of one piece given the position's check
+     * and pin information. Pieces other than the king may only move onto the
+     * check mask (block or capture a single checker), and pinned pieces may
+     * only move along the line through their king. King moves are tested
+     * against the attacks that would hit the destination once the king has
+     * left its square, so it cannot step backwards along a checking ray.
+     */
+    private static long legalTargets(ChessBoard board, int from, ChessPiece piece, int king, long checkMask,
+                                     long pinned) {
+        long targets = targets(board, from, piece);
+        if (from == king) {
+            ChessGame.TeamColor enemy = ChessGame.opponent(piece.getTeamColor());
+            long occupied = board.getOccupied() & ~(1L << king);
+            for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+                int to = Bitboards.first(remaining);
+                if (board.isSquareAttacked(to, enemy, occupied)) {
+                    targets &= ~(1L << to);
+                }
+            }
+            return targets;
+        }
+        targets &= checkMask;
+        if ((pinned & (1L << from)) != 0) {
+            targets &= Attacks.line(king, from);
+        }
+        return targets;
+    }
+
+    /**
+     * @return the squares a non-king piece may move to given the pieces giving
+     * check: anywhere when there are none, the checker or the squares between
+     * it and the king when there is one, and nowhere in double check
+     */
+    private static long checkMask(int king, long checkers) {
+        if (checkers == 0) {
+            return -1L;
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            return 0L;
+        }
+        return checkers | Attacks.between(king, Bitboards.first(checkers));
+    }
+
+    private static void emit(ChessBoard board, int from, ChessPiece piece, long targets, MoveList moves) {
+        long enemy = board.getTeamPieces(ChessGame.opponent(piece.getTeamColor()));
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Bitboards.first(targets);
+            long bit = 1L << to;
+            int flags = (enemy & bit) != 0 ? PackedMove.CAPTURE : 0;
+            if (pawn && (to - from == 16 || from - to == 16)) {
+                flags |= PackedMove.DOUBLE_PUSH;
+            }
+            if (pawn && (PROMOTION_RANKS & bit) != 0) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    moves.add(PackedMove.of(from, to, promotion, flags));
+                }
+            } else {
+                moves.add(PackedMove.of(from, to) | flags);
+            }
+        }
+    }
+
+    /**
+     * @return every square the piece could move to, ignoring whether the move
+     * would leave its own king in check
+     */
+    public static long targets(ChessBoard board, int square, ChessPiece piece) {
+        ChessGame.TeamColor color = piece.getTeamColor();
+        long own = board.getTeamPieces(color);
+        if (piece.getPieceType() != ChessPiece.PieceType.PAWN) {
+            return attacks(board.getOccupied(), square, piece) & ~own;
+        }
+        long empty = ~board.getOccupied();
+        long bit = 1L << square;
+        long single;
+        long twice;
+        if (color == ChessGame.TeamColor.WHITE) {
+            single = Bitboards.north(bit) & empty;
+            twice = Bitboards.north(single & (Bitboards.RANK_1 << 16)) & empty;
+        } else {
+            single = Bitboards.south(bit) & empty;
+            twice = Bitboards.south(single & (Bitboards.RANK_8 >>> 16)) & empty;
+        }
+        long enemy = board.getOccupied() & ~own;
+        return single | twice | (Attacks.pawn(color, square) & enemy);
+    }
+
+    /**
+     * @return every square the piece attacks, including squares held by its
+     * own team
+     */
+    public static long attacks(long occupied, int square, ChessPiece piece) {
+        return switch (piece.getPieceType()) {
+            case KING -> Attacks.king(square);
+            case KNIGHT -> Attacks.knight(square);
+            case PAWN -> Attacks.pawn(piece.getTeamColor(), square);
+            case BISHOP -> Attacks.bishop(square, occupied);
+            case ROOK -> Attacks.rook(square, occupied);
+            case QUEEN -> Attacks.queen(square, occupied);
+        };
+    }
+
+}
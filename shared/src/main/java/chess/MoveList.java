@@ -0,0 +1,78 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, growable list of {@link PackedMove}s backed by an {@code int[]}.
+ * <p>
+ * Not thread-safe. A list is meant to be owned by a single thread and
+ * cleared and refilled rather than reallocated.
+ */
+public final class MoveList {
+    // more than the maximum number of legal moves in any chess position
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move at or after the given index.
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * @return a copy of the moves in the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @return the index of a move with the same from, to and promotion, or -1
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.sameMove(moves[i], move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,88 @@
+package chess;
+
+/**
+ * Encodes a move as a single {@code int} so the move generator can work
+ * without allocating a {@link ChessMove} and two {@link ChessPosition}s per
+ * move.
+ * <pre>
+ * bits  0-5   from square
+ * bits  6-11  to square
+ * bits 12-14  promotion piece (0 = none, otherwise PieceType ordinal + 1)
+ * bits 15-18  flags
+ * </pre>
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    // the king's move of a castle; the rook moves with it
+    public static final int CASTLE = 1 << 17;
+    // a pawn capturing onto the en passant square
+    public static final int EN_PASSANT = 1 << 18;
+
+    // from, to and promotion; two moves are the same move when these match
+    private static final int IDENTITY_MASK = (1 << 15) - 1;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {}
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int code = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (code << 12) | flags;
+    }
+
+    public static int of(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move does not promote
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @return true if both moves have the same from, to and promotion,
+     * regardless of flags
+     */
+    public static boolean sameMove(int a, int b) {
+        return ((a ^ b) & IDENTITY_MASK) == 0;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+}
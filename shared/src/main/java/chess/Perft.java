@@ -0,0 +1,49 @@
+package chess;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The counts
+ * for well known positions are published, which makes perft the standard
+ * correctness check for a move generator, and the node rate makes it a
+ * convenient throughput benchmark.
+ */
+public final class Perft {
+    private static final int MAX_DEPTH = 64;
+
+    private final MoveList[] lists = new MoveList[MAX_DEPTH];
+
+    public Perft() {
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * @param game  the position to start from; its board is restored before
+     *              returning
+     * @param depth number of plies to search
+     * @return the number of positions reached after exactly depth plies
+     */
+    public long count(ChessGame game, int depth) {
+        return count(game.getBoard(), game.getTeamTurn(), depth, 0);
+    }
+
+    private long count(ChessBoard board, ChessGame.TeamColor color, int depth, int ply) {
+        if (depth == 0) {
+            return 1L;
+        }
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0L;
+        ChessGame.TeamColor next = ChessGame.opponent(color);
+        for (int i = 0; i < moves.size(); i++) {
+            board.doMove(moves.get(i));
+            nodes += count(board, next, depth - 1, ply + 1);
+            board.undoMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,22 @@
+package chess;
+
+/**
+ * Notified of every piece a {@link ChessBoard} places or removes, including
+ * the pieces moved by {@link ChessBoard#doMove(int)} and
+ * {@link ChessBoard#undoMove()}. Lets data derived from the piece placement,
+ * such as evaluation sums, be kept up to date as the board changes instead
+ * of being recomputed from every square.
+ */
+public interface PieceListener {
+    /**
+     * @param piece  piece index, see {@link ChessBoard#pieceIndex}
+     * @param square square index, see {@link Bitboards}
+     */
+    void pieceAdded(int piece, int square);
+
+    /**
+     * @param piece  piece index, see {@link ChessBoard#pieceIndex}
+     * @param square square index, see {@link Bitboards}
+     */
+    void pieceRemoved(int piece, int square);
+}
@@ -0,0 +1,152 @@
+package chess;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of legal moves and game status keyed by position.
+ * <p>
+ * The cache is set-associative: a key maps to one bucket of {@link #WAYS}
+ * slots, and when the bucket is full a clock hand gives each slot a second
+ * chance before evicting it. Buckets are guarded by a fixed set of striped
+ * locks, so lookups of different positions rarely contend and nothing is
+ * allocated on a hit.
+ * <p>
+ * Entries also record the board's occupancy, so a lookup only hits when both
+ * the 64-bit key and the occupied squares match.
+ */
+public final class PositionCache {
+    public static final int WAYS = 4;
+    private static final int STRIPES = 64;
+    private static final int DEFAULT_CAPACITY = 1 << 15;
+
+    private static final PositionCache SHARED = new PositionCache(DEFAULT_CAPACITY);
+
+    private final Object[] locks = new Object[STRIPES];
+    private final long[] keys;
+    private final long[] occupancies;
+    private final Entry[] entries;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final int bucketMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Cached legal moves and status for one team in one position. The moves
+     * array must not be modified.
+     */
+    public record Entry(int[] moves, ChessGame.GameStatus status) {}
+
+    /**
+     * @param capacity maximum number of positions held, rounded up to a power
+     *                 of two
+     */
+    public PositionCache(int capacity) {
+        int needed = Math.max(STRIPES, (capacity + WAYS - 1) / WAYS);
+        int buckets = Integer.highestOneBit(needed - 1) << 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        keys = new long[buckets * WAYS];
+        occupancies = new long[buckets * WAYS];
+        entries = new Entry[buckets * WAYS];
+        referenced = new boolean[buckets * WAYS];
+        hands = new byte[buckets];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return the cache shared by every {@link ChessGame}
+     */
+    public static PositionCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the cached entry, or null if the position is not cached
+     */
+    public Entry get(long key, long occupied) {
+        int bucket = bucket(key);
+        int base = bucket * WAYS;
+        synchronized (locks[bucket & (STRIPES - 1)]) {
+            for (int slot = base; slot < base + WAYS; slot++) {
+                Entry entry = entries[slot];
+                if (entry != null && keys[slot] == key && occupancies[slot] == occupied) {
+                    referenced[slot] = true;
+                    hits.increment();
+                    return entry;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores an entry, replacing any entry for the same position. When the
+     * bucket is full the clock hand skips slots used since it last passed and
+     * evicts the first one that was not.
+     */
+    public void put(long key, long occupied, Entry entry) {
+        int bucket = bucket(key);
+        int base = bucket * WAYS;
+        synchronized (locks[bucket & (STRIPES - 1)]) {
+            int target = -1;
+            for (int slot = base; slot < base + WAYS; slot++) {
+                if (entries[slot] == null || (keys[slot] == key && occupancies[slot] == occupied)) {
+                    target = slot;
+                    break;
+                }
+            }
+            if (target < 0) {
+                int hand = hands[bucket];
+                while (referenced[base + hand]) {
+                    referenced[base + hand] = false;
+                    hand = (hand + 1) % WAYS;
+                }
+                target = base + hand;
+                hands[bucket] = (byte) ((hand + 1) % WAYS);
+                evictions.increment();
+            }
+            keys[target] = key;
+            occupancies[target] = occupied;
+            entries[target] = entry;
+            referenced[target] = false;
+        }
+    }
+
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int bucket = stripe; bucket <= bucketMask; bucket += STRIPES) {
+                    for (int slot = bucket * WAYS; slot < (bucket + 1) * WAYS; slot++) {
+                        entries[slot] = null;
+                        referenced[slot] = false;
+                    }
+                }
+            }
+        }
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private int bucket(long key) {
+        return (int) (key ^ (key >>> 32)) & bucketMask;
+    }
+}
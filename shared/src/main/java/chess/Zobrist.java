@@ -0,0 +1,83 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key of
+ * every piece on its square plus the side to move, the castling rights and
+ * the en passant file, so it can be updated incrementally as pieces are added
+ * and removed.
+ * <p>
+ * The keys come from a fixed seed, so they are the same in every run and
+ * keys can be stored and compared across restarts.
+ */
+public final class Zobrist {
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long BLACK_TO_MOVE;
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long state = 0x9E3779B97F4A7C15L;
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                squares[square] = mix(state);
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+        // each right has its own key, so a set of rights is the XOR of its members
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            rights[i] = mix(state);
+        }
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    CASTLING[mask] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+    }
+
+    private Zobrist() {}
+
+    /**
+     * @param piece piece index, see {@link ChessBoard}
+     */
+    static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece][square];
+    }
+
+    /**
+     * @param rights castling rights mask, see {@link ChessBoard}
+     */
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param square en passant target square, or -1 for none
+     */
+    static long enPassant(int square) {
+        return square < 0 ? 0L : EN_PASSANT_FILE[square & 7];
+    }
+
+    /**
+     * @return the key to XOR in when the given team is to move
+     */
+    public static long side(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
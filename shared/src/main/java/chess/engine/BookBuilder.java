@@ -0,0 +1,183 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles played games into an {@link OpeningBook}.
+ * <p>
+ * Every position reached in the first {@code maxPly} moves of a game is
+ * recorded with the move played from it, and a move's weight in the book is
+ * the number of games that played it. The builder keeps one counter per
+ * distinct position and move, so it holds far less than the games
+ * themselves; the book it writes is sorted for the reader's binary search.
+ * <p>
+ * The server stores games as positions, not move lists, so games are given
+ * to the builder as moves, or as lines of coordinate moves such as
+ * {@code e2e4 e7e5 g1f3}, the format {@link #main} reads from a file.
+ */
+public final class BookBuilder {
+    private final int maxPly;
+    // position key to move encoding to number of games
+    private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+    private int games;
+
+    /**
+     * @param maxPly how many moves of each game to record
+     */
+    public BookBuilder(int maxPly) {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("A book needs at least one ply: " + maxPly);
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Records the opening of a game played from the standard start position
+     *
+     * @throws InvalidMoveException if a move within the recorded plies is not
+     *                              legal; the moves before it are kept
+     */
+    public void addGame(List<ChessMove> moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        games++;
+        for (int ply = 0; ply < Math.min(maxPly, moves.size()); ply++) {
+            ChessMove move = moves.get(ply);
+            long key = game.getPositionKey();
+            int encoded = OpeningBook.encode(game.getBoard(), move);
+            game.makeMove(move);
+            counts.computeIfAbsent(key, k -> new HashMap<>()).merge(encoded, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Records a game written as coordinate moves separated by whitespace,
+     * with a promotion as a fifth letter, such as {@code e7e8q}
+     *
+     * @throws IllegalArgumentException if a move is not in coordinate form
+     * @throws InvalidMoveException     if a move is not legal
+     */
+    public void addGame(String line) throws InvalidMoveException {
+        List<ChessMove> moves = new ArrayList<>();
+        for (String move : line.trim().split("\\s+")) {
+            if (!move.isEmpty()) {
+                moves.add(parse(move));
+            }
+        }
+        addGame(moves);
+    }
+
+    /**
+     * @return the number of games added
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * @return the number of distinct positions and moves, which is the
+     * number of entries the book will have
+     */
+    public int entries() {
+        int entries = 0;
+        for (Map<Integer, Integer> moves : counts.values()) {
+            entries += moves.size();
+        }
+        return entries;
+    }
+
+    public void write(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the book: entries sorted by unsigned key, and by weight within
+     * a key, with weights above the format's maximum clamped to it
+     */
+    public void write(OutputStream out) throws IOException {
+        List<Long> keys = new ArrayList<>(counts.keySet());
+        keys.sort(Long::compareUnsigned);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        for (long key : keys) {
+            List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(counts.get(key).entrySet());
+            moves.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed());
+            for (Map.Entry<Integer, Integer> move : moves) {
+                data.writeLong(key);
+                data.writeShort(move.getKey());
+                data.writeShort(Math.min(move.getValue(), 0xFFFF));
+                data.writeInt(0);
+            }
+        }
+        data.flush();
+    }
+
+    private static ChessMove parse(String move) {
+        if (move.length() < 4 || move.length() > 5) {
+            throw new IllegalArgumentException("Not a coordinate move: " + move);
+        }
+        ChessPiece.PieceType promotion = null;
+        if (move.length() == 5) {
+            promotion = switch (move.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Not a promotion piece: " + move);
+            };
+        }
+        return ChessMove.of(position(move, 0), position(move, 2), promotion);
+    }
+
+    private static ChessPosition position(String move, int offset) {
+        char file = move.charAt(offset);
+        char rank = move.charAt(offset + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw new IllegalArgumentException("Not a coordinate move: " + move);
+        }
+        return ChessPosition.of(rank - '0', file - 'a' + 1);
+    }
+
+    /**
+     * Builds a book from a file of games, one line of coordinate moves per
+     * game: {@code BookBuilder <games> <book> [maxPly]}. Lines that are
+     * blank or start with {@code #} are skipped, as are lines that are not
+     * coordinate moves, and games with an illegal move are kept up to it.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BookBuilder <games> <book> [maxPly]");
+            System.exit(1);
+        }
+        BookBuilder builder = new BookBuilder(args.length == 3 ? Integer.parseInt(args[2]) : 24);
+        int skipped = 0;
+        for (String line : Files.readAllLines(Path.of(args[0]))) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                builder.addGame(line);
+            } catch (InvalidMoveException | IllegalArgumentException e) {
+                skipped++;
+            }
+        }
+        builder.write(Path.of(args[1]));
+        System.out.printf("%d games, %d entries, %d games with bad moves%n", builder.games(), builder.entries(),
+                skipped);
+    }
+}
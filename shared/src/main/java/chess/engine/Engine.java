@@ -0,0 +1,244 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Finds a move to play with an iterative-deepening alpha-beta search.
+ * <p>
+ * Each iteration is a principal variation search one ply deeper than the
+ * last, extended by a ply when the side to move is in check and finished
+ * with a quiescence search of captures and queen promotions, so the static
+ * evaluation is only applied to quiet positions. Moves are tried in the
+ * order: the transposition table's best move, captures by most valuable
+ * victim then least valuable attacker, the two killer moves of the ply, and
+ * the remaining quiet moves by their history score. Positions are scored
+ * by an {@link Evaluator}, {@link PieceSquareEvaluator} unless another is
+ * given, which every thread keeps up to date as it makes and takes back
+ * moves.
+ * <p>
+ * With more than one thread the search is Lazy SMP: every thread searches
+ * the same root independently, see {@link Searcher}, and they share their
+ * results only through the lock-free transposition table. The calling
+ * thread runs the main search and decides when to stop; the helpers run on
+ * the engine's own threads. The result comes from whichever thread
+ * completed the deepest iteration, the main one on a tie.
+ * <p>
+ * The search works on copies of the game, so the caller's game is never
+ * touched and may be read while a search runs. Repetitions within the
+ * searched line or with the game's earlier positions, the fifty-move rule
+ * and insufficient material score as draws. Given a {@link Tablebase}, the
+ * search takes the scores of the endgames it covers from the tables, and a
+ * position that is itself in the tables is searched one ply deep, which is
+ * enough to pick the move the tables score best. Given an
+ * {@link OpeningBook}, a position in the book is not searched at all: the
+ * book's most played move is returned at once, with depth and nodes of 0.
+ * <p>
+ * An engine keeps its transposition table, killer and history tables
+ * between searches, which helps when it searches successive positions of
+ * one game. It runs one search at a time; only {@link #stop()} may be
+ * called from another thread. Engines with helper threads should be closed.
+ */
+public final class Engine implements AutoCloseable {
+    /**
+     * The score of delivering mate now. A mate found n plies from the root
+     * scores {@code MATE - n}.
+     */
+    public static final int MATE = 32000;
+    // deepest ply the search reaches, including extensions and quiescence
+    static final int MAX_PLY = 64;
+
+    private static final int DEFAULT_HASH_MEGABYTES = 16;
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final TranspositionTable table;
+    private final Searcher[] searchers;
+    // runs every searcher but the main one; null with a single thread
+    private final ExecutorService helpers;
+    private volatile SearchControl current;
+    private OpeningBook book;
+    private Tablebase tablebase;
+
+    public Engine() {
+        this(DEFAULT_HASH_MEGABYTES, 1);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table
+     */
+    public Engine(int hashMegabytes) {
+        this(hashMegabytes, 1);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table, shared by all
+     *                      threads
+     * @param threads       number of threads to search with, including the
+     *                      caller's
+     */
+    public Engine(int hashMegabytes, int threads) {
+        this(hashMegabytes, threads, PieceSquareEvaluator::new);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table, shared by all
+     *                      threads
+     * @param threads       number of threads to search with, including the
+     *                      caller's
+     * @param evaluators    creates one evaluator for each thread
+     */
+    public Engine(int hashMegabytes, int threads, Supplier<? extends Evaluator> evaluators) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("An engine needs at least one thread: " + threads);
+        }
+        table = new TranspositionTable(hashMegabytes);
+        searchers = new Searcher[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = new Searcher(i, table, evaluators.get());
+        }
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "engine-helper-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the number of threads a search uses
+     */
+    public int threads() {
+        return searchers.length;
+    }
+
+    /**
+     * Searches the position within the limits.
+     *
+     * @param position the game to move in; it is not modified
+     * @param limits   when to stop searching
+     * @return the best move found, with its score and search statistics
+     */
+    public SearchResult bestMove(ChessGame position, SearchLimits limits) {
+        long start = System.nanoTime();
+        if (book != null) {
+            List<OpeningBook.BookMove> moves = book.moves(position);
+            if (!moves.isEmpty()) {
+                ChessMove move = moves.get(0).move();
+                return new SearchResult(move, 0, 0, 0L, (System.nanoTime() - start) / 1_000_000L, List.of(move),
+                        Collections.nCopies(searchers.length, 0L));
+            }
+        }
+        ChessGame[] games = new ChessGame[searchers.length];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = position.fork();
+        }
+        // in the tables every move leads to a position they score exactly
+        int depth = tablebase != null && tablebase.probe(position) != Tablebase.UNKNOWN ? 1 : limits.depth();
+        SearchControl control = new SearchControl(limits, start);
+        table.newSearch();
+        current = control;
+
+        List<Future<?>> running = new ArrayList<>(searchers.length - 1);
+        for (int i = 1; i < searchers.length; i++) {
+            Searcher helper = searchers[i];
+            ChessGame game = games[i];
+            running.add(helpers.submit(() -> helper.run(game, control, depth)));
+        }
+        try {
+            searchers[0].run(games[0], control, depth);
+        } finally {
+            control.stop();
+            for (Future<?> helper : running) {
+                await(helper);
+            }
+            current = null;
+        }
+
+        Searcher best = searchers[0];
+        List<Long> threadNodes = new ArrayList<>(searchers.length);
+        long nodes = 0L;
+        for (Searcher searcher : searchers) {
+            if (searcher.completedDepth() > best.completedDepth()) {
+                best = searcher;
+            }
+            threadNodes.add(searcher.nodes());
+            nodes += searcher.nodes();
+        }
+        int move = best.bestMove();
+        return new SearchResult(move == 0 ? null : PackedMove.toChessMove(move), best.bestScore(),
+                best.completedDepth(), nodes, (System.nanoTime() - start) / 1_000_000L,
+                best.principalVariation(), threadNodes);
+    }
+
+    /**
+     * Asks a search running on another thread to stop as soon as it can. It
+     * still returns the best move of its last completed iteration.
+     */
+    public void stop() {
+        SearchControl control = current;
+        if (control != null) {
+            control.stop();
+        }
+    }
+
+    /**
+     * Sets the endgame tables the search probes instead of searching the
+     * positions they cover, or null for none. Call it between searches.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+        for (Searcher searcher : searchers) {
+            searcher.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Sets the opening book whose moves are played instead of searching, or
+     * null for none. Call it between searches.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Forgets everything learned from earlier searches, for example before
+     * starting an unrelated game
+     */
+    public void clear() {
+        table.clear();
+        for (Searcher searcher : searchers) {
+            searcher.clear();
+        }
+    }
+
+    /**
+     * Stops the helper threads. The engine cannot search afterwards.
+     */
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    private static void await(Future<?> helper) {
+        try {
+            helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search threads", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+    }
+}
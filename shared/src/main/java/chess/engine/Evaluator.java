@@ -0,0 +1,25 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.PieceListener;
+
+/**
+ * A static evaluation that keeps its own running state as pieces are
+ * placed and removed, so scoring a position costs little more than reading
+ * that state. Each search thread owns one evaluator, attached as its
+ * board's {@link PieceListener}; implementations need not be thread-safe.
+ */
+public interface Evaluator extends PieceListener {
+    /**
+     * Rebuilds the evaluator's state from every piece on the board, before
+     * it is attached to that board
+     */
+    void reset(ChessBoard board);
+
+    /**
+     * @return the score of the position in centipawns, from the given
+     * team's point of view
+     */
+    int evaluate(ChessGame.TeamColor color);
+}
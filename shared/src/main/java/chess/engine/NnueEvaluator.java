@@ -0,0 +1,215 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A small efficiently updatable neural network, run on the CPU with integer
+ * arithmetic.
+ * <p>
+ * The input layer has one feature per piece index and square, 768 in all,
+ * seen from both sides: white's view uses the board as it is, and black's
+ * swaps the colors and mirrors the ranks. Each view has an accumulator, the
+ * sum of the hidden layer weights of the features present plus the biases,
+ * which {@link #pieceAdded} and {@link #pieceRemoved} update by adding or
+ * subtracting one weight column. Evaluating only runs the output layer: the
+ * side to move's accumulator then the other side's, each clipped to
+ * {@code [0, QA]}, dotted with the output weights.
+ * <p>
+ * Hidden weights and biases are quantized by {@value #QA} and output
+ * weights by {@value #QB}, the usual scheme for networks trained with a
+ * clipped ReLU, and must be small enough that an accumulator stays within a
+ * {@code short}, and the output weights small enough that one view's dot
+ * product fits in an {@code int}.
+ */
+public final class NnueEvaluator implements Evaluator {
+    public static final int FEATURES = 768;
+    public static final int QA = 255;
+    public static final int QB = 64;
+    // centipawns per unit of network output
+    public static final int SCALE = 400;
+
+    private final Network network;
+    private final int hidden;
+    // one accumulator per view, indexed by team ordinal
+    private final short[][] accumulators;
+
+    public NnueEvaluator(Network network) {
+        this.network = network;
+        hidden = network.hiddenSize();
+        accumulators = new short[2][hidden];
+    }
+
+    @Override
+    public void reset(ChessBoard board) {
+        for (short[] accumulator : accumulators) {
+            System.arraycopy(network.inputBiases(), 0, accumulator, 0, hidden);
+        }
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                int piece = ChessBoard.pieceIndex(color, type);
+                for (long pieces = board.getPieces(color, type); pieces != 0; pieces &= pieces - 1) {
+                    pieceAdded(piece, Bitboards.first(pieces));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(int piece, int square) {
+        short[] weights = network.inputWeights();
+        add(accumulators[0], weights, whiteFeature(piece, square) * hidden);
+        add(accumulators[1], weights, blackFeature(piece, square) * hidden);
+    }
+
+    @Override
+    public void pieceRemoved(int piece, int square) {
+        short[] weights = network.inputWeights();
+        subtract(accumulators[0], weights, whiteFeature(piece, square) * hidden);
+        subtract(accumulators[1], weights, blackFeature(piece, square) * hidden);
+    }
+
+    @Override
+    public int evaluate(ChessGame.TeamColor color) {
+        short[] weights = network.outputWeights();
+        long sum = (long) dot(accumulators[color.ordinal()], weights, 0)
+                + dot(accumulators[1 - color.ordinal()], weights, hidden);
+        return (int) ((sum + network.outputBias()) * SCALE / (QA * QB));
+    }
+
+    private void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    private void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    private int dot(short[] accumulator, short[] weights, int offset) {
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            sum += Math.min(Math.max(accumulator[i], 0), QA) * weights[offset + i];
+        }
+        return sum;
+    }
+
+    private static int whiteFeature(int piece, int square) {
+        return piece * 64 + square;
+    }
+
+    private static int blackFeature(int piece, int square) {
+        return ((piece + 6) % 12) * 64 + (square ^ 56);
+    }
+
+    /**
+     * The quantized weights of a network.
+     *
+     * @param hiddenSize    neurons per view in the hidden layer
+     * @param inputWeights  {@link #FEATURES} columns of hiddenSize weights
+     * @param inputBiases   hiddenSize biases
+     * @param outputWeights hiddenSize weights for the side to move's view,
+     *                      then hiddenSize for the other side's
+     * @param outputBias    output bias, quantized by QA * QB
+     */
+    public record Network(int hiddenSize, short[] inputWeights, short[] inputBiases, short[] outputWeights,
+                          int outputBias) {
+
+        public Network {
+            if (hiddenSize < 1 || inputWeights.length != FEATURES * hiddenSize
+                    || inputBiases.length != hiddenSize || outputWeights.length != 2 * hiddenSize) {
+                throw new IllegalArgumentException("Network weights do not match a hidden layer of " + hiddenSize);
+            }
+            int largest = 0;
+            for (short weight : outputWeights) {
+                largest = Math.max(largest, Math.abs(weight));
+            }
+            if ((long) hiddenSize * QA * largest > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Output weights up to " + largest + " can overflow a hidden layer of "
+                        + hiddenSize);
+            }
+        }
+
+        /**
+         * Reads a network in the layout {@link #write} produces: the hidden
+         * size as an int, then the input weights, input biases and output
+         * weights as shorts and the output bias as an int, all little-endian.
+         *
+         * @throws IllegalArgumentException if the data is not a network
+         */
+        public static Network read(InputStream in) throws IOException {
+            ByteBuffer data = ByteBuffer.wrap(in.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.remaining() < Integer.BYTES) {
+                throw new IllegalArgumentException("Network file is too short");
+            }
+            int hiddenSize = data.getInt();
+            long expected = Short.BYTES * (FEATURES + 3L) * hiddenSize + Integer.BYTES;
+            if (hiddenSize < 1 || data.remaining() != expected) {
+                throw new IllegalArgumentException("Network file has " + data.remaining()
+                        + " bytes of weights for a hidden layer of " + hiddenSize);
+            }
+            short[] inputWeights = new short[FEATURES * hiddenSize];
+            short[] inputBiases = new short[hiddenSize];
+            short[] outputWeights = new short[2 * hiddenSize];
+            data.asShortBuffer().get(inputWeights).get(inputBiases).get(outputWeights);
+            data.position(data.position() + Short.BYTES * (inputWeights.length + inputBiases.length
+                    + outputWeights.length));
+            return new Network(hiddenSize, inputWeights, inputBiases, outputWeights, data.getInt());
+        }
+
+        public void write(OutputStream out) throws IOException {
+            ByteBuffer data = ByteBuffer.allocate(Integer.BYTES * 2 + Short.BYTES
+                    * (inputWeights.length + inputBiases.length + outputWeights.length))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            data.putInt(hiddenSize);
+            data.asShortBuffer().put(inputWeights).put(inputBiases).put(outputWeights);
+            data.position(data.position() + Short.BYTES * (inputWeights.length + inputBiases.length
+                    + outputWeights.length));
+            data.putInt(outputBias);
+            out.write(data.array());
+        }
+
+        /**
+         * @return a network of small random weights, for tests and
+         * benchmarks; it plays no better than chance
+         */
+        public static Network random(int hiddenSize, long seed) {
+            Random random = new Random(seed);
+            short[] inputWeights = new short[FEATURES * hiddenSize];
+            short[] inputBiases = new short[hiddenSize];
+            short[] outputWeights = new short[2 * hiddenSize];
+            for (short[] weights : new short[][]{inputWeights, inputBiases, outputWeights}) {
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = (short) (random.nextInt(65) - 32);
+                }
+            }
+            return new Network(hiddenSize, inputWeights, inputBiases, outputWeights, 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Network that && hiddenSize == that.hiddenSize && outputBias == that.outputBias
+                    && Arrays.equals(inputWeights, that.inputWeights)
+                    && Arrays.equals(inputBiases, that.inputBiases)
+                    && Arrays.equals(outputWeights, that.outputWeights);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * hiddenSize + Arrays.hashCode(outputWeights);
+        }
+    }
+}
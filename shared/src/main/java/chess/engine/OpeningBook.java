@@ -0,0 +1,227 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book, memory-mapped rather than read onto the heap.
+ * <p>
+ * The file uses the Polyglot layout: a sequence of 16 byte big-endian
+ * entries sorted by unsigned key.
+ * <pre>
+ *  0-7    position key
+ *  8-9    move: to file (bits 0-2), to rank (3-5), from file (6-8),
+ *         from rank (9-11), promotion (12-14: 1 knight to 4 queen);
+ *         castling is written as the king capturing its own rook
+ *  10-11  weight
+ *  12-15  learning data, unused
+ * </pre>
+ * The key is this project's {@link ChessGame#getPositionKey()} rather than
+ * Polyglot's own hash, whose constants the project does not share, so books
+ * are built with {@link BookBuilder}. A lookup is a binary search over the
+ * mapped file: it reads a few dozen entries, touches only the pages they
+ * are on, and allocates nothing but the returned list and its entries. Each
+ * book move is checked against the legal moves of its piece alone, without
+ * going through the shared position cache, and moves that are not legal in
+ * the game are dropped, which also guards against key collisions.
+ * <p>
+ * Files larger than a single mapping are mapped in 1 GB chunks. A book can
+ * be shared by any number of threads.
+ */
+public final class OpeningBook {
+    static final int ENTRY_SIZE = 16;
+    // entries per mapped chunk; a chunk is 1 GB
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    // scratch space for checking a book move, confined to the calling thread
+    private static final ThreadLocal<MoveList> BUFFER = ThreadLocal.withInitial(MoveList::new);
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            null, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+    };
+
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private OpeningBook(MappedByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Maps the book file. The file is not read until it is looked up, and
+     * stays mapped until the book is garbage collected.
+     *
+     * @throws IllegalArgumentException if the file size is not a whole number
+     *                                  of entries
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % ENTRY_SIZE != 0) {
+                throw new IllegalArgumentException("Book " + file + " is not a whole number of entries: "
+                        + bytes + " bytes");
+            }
+            long size = bytes / ENTRY_SIZE;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long offset = ((long) i << CHUNK_SHIFT) * ENTRY_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(bytes - offset, (long) ENTRY_SIZE << CHUNK_SHIFT));
+            }
+            return new OpeningBook(chunks, size);
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the book's legal moves for the game's position, highest weight
+     * first, or an empty list if the position is not in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        long key = game.getPositionKey();
+        long first = lowerBound(key);
+        if (first == size || key(first) != key) {
+            return List.of();
+        }
+        ChessBoard board = game.getBoard();
+        MoveList legal = BUFFER.get();
+        List<BookMove> moves = new ArrayList<>();
+        for (long i = first; i < size && key(i) == key; i++) {
+            int move = decode(board, chunk(i).getShort(offset(i) + 8) & 0xFFFF);
+            int weight = chunk(i).getShort(offset(i) + 10) & 0xFFFF;
+            ChessPiece piece = board.getPiece(PackedMove.from(move));
+            if (weight == 0 || piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                continue;
+            }
+            legal.clear();
+            MoveGenerator.generateLegal(board, PackedMove.from(move), legal);
+            int index = legal.indexOf(move);
+            if (index >= 0) {
+                moves.add(new BookMove(PackedMove.toChessMove(legal.get(index)), weight));
+            }
+        }
+        moves.sort(Comparator.comparingInt(BookMove::weight).reversed());
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves at random, in proportion to their weights
+     *
+     * @return the move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = moves(game);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int choice = random.nextInt(total);
+        for (BookMove move : moves) {
+            choice -= move.weight();
+            if (choice < 0) {
+                return move.move();
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+
+    /**
+     * @return the index of the first entry whose key is not below the given
+     * one, in unsigned order, or size if there is none
+     */
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(long index) {
+        return chunk(index).getLong(offset(index));
+    }
+
+    private MappedByteBuffer chunk(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & CHUNK_MASK) * ENTRY_SIZE;
+    }
+
+    /**
+     * @return the Polyglot encoding of a legal move on the board
+     */
+    static int encode(ChessBoard board, ChessMove move) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        ChessPiece piece = board.getPiece(from);
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        int promotion = 0;
+        if (move.getPromotionPiece() != null) {
+            for (int i = 1; i < PROMOTIONS.length; i++) {
+                if (PROMOTIONS[i] == move.getPromotionPiece()) {
+                    promotion = i;
+                }
+            }
+        }
+        return to | (from << 6) | (promotion << 12);
+    }
+
+    /**
+     * @return the {@link PackedMove} for a Polyglot move on the board, without
+     * flags; castling is turned back into the king's two square move
+     */
+    static int decode(ChessBoard board, int move) {
+        int to = move & 63;
+        int from = (move >>> 6) & 63;
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece target = board.getPiece(to);
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && target != null
+                && target.getPieceType() == ChessPiece.PieceType.ROOK
+                && target.getTeamColor() == piece.getTeamColor()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        int promotion = (move >>> 12) & 7;
+        return PackedMove.of(from, to, promotion < PROMOTIONS.length ? PROMOTIONS[promotion] : null, 0);
+    }
+
+    /**
+     * A book move and how often it was played
+     */
+    public record BookMove(ChessMove move, int weight) {}
+}
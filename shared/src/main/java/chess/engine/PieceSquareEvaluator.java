@@ -0,0 +1,167 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Tapered piece-square evaluation. Every piece is worth its material plus
+ * a bonus for its square, with one set of values for the middlegame and one
+ * for the endgame. The two sums and the game phase, which falls from 24 to 0
+ * as minor pieces, rooks and queens come off, are updated by
+ * {@link #pieceAdded} and {@link #pieceRemoved}, so an evaluation is two
+ * multiplications and a division.
+ * <p>
+ * The middlegame tables are the widely used "simplified evaluation
+ * function" ones; the endgame ones differ for the king, which should head
+ * for the centre, and pawns, which gain value as they advance. Tables are
+ * written from white's side with rank 8 on the first line, so a white piece
+ * on square {@code s} reads entry {@code s ^ 56} and a black piece reads
+ * entry {@code s}.
+ */
+public final class PieceSquareEvaluator implements Evaluator {
+    private static final int MAX_PHASE = 24;
+    // phase weight of each PieceType, in ordinal order
+    private static final int[] PHASE = {0, 4, 1, 1, 2, 0};
+    private static final int[] MIDDLEGAME_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_VALUES = {0, 940, 300, 290, 520, 120};
+
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    // signed value, white positive, of each piece index on each square
+    private static final int[] MIDDLEGAME = new int[12 * 64];
+    private static final int[] ENDGAME = new int[12 * 64];
+
+    static {
+        int[][] middlegame = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+        int[][] endgame = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                MIDDLEGAME[type * 64 + square] = MIDDLEGAME_VALUES[type] + middlegame[type][square ^ 56];
+                ENDGAME[type * 64 + square] = ENDGAME_VALUES[type] + endgame[type][square ^ 56];
+                MIDDLEGAME[(6 + type) * 64 + square] = -(MIDDLEGAME_VALUES[type] + middlegame[type][square]);
+                ENDGAME[(6 + type) * 64 + square] = -(ENDGAME_VALUES[type] + endgame[type][square]);
+            }
+        }
+    }
+
+    private int middlegame;
+    private int endgame;
+    private int phase;
+
+    @Override
+    public void reset(ChessBoard board) {
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                int piece = ChessBoard.pieceIndex(color, type);
+                for (long pieces = board.getPieces(color, type); pieces != 0; pieces &= pieces - 1) {
+                    pieceAdded(piece, Bitboards.first(pieces));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(int piece, int square) {
+        middlegame += MIDDLEGAME[piece * 64 + square];
+        endgame += ENDGAME[piece * 64 + square];
+        phase += PHASE[piece % 6];
+    }
+
+    @Override
+    public void pieceRemoved(int piece, int square) {
+        middlegame -= MIDDLEGAME[piece * 64 + square];
+        endgame -= ENDGAME[piece * 64 + square];
+        phase -= PHASE[piece % 6];
+    }
+
+    @Override
+    public int evaluate(ChessGame.TeamColor color) {
+        int weight = Math.min(phase, MAX_PHASE);
+        int score = (middlegame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+        return color == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
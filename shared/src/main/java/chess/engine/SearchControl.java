@@ -0,0 +1,59 @@
+package chess.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits and stop flag shared by the searchers of one search. Searchers
+ * report their nodes in batches, so the shared count is only touched once
+ * every {@value Searcher#CHECK_INTERVAL} nodes per thread.
+ */
+final class SearchControl {
+    private final long start;
+    private final long nodeLimit;
+    private final long deadline;
+    private final AtomicLong nodes = new AtomicLong();
+    private volatile boolean stopped;
+
+    SearchControl(SearchLimits limits, long start) {
+        this.start = start;
+        nodeLimit = limits.nodes();
+        deadline = limits.millis() == 0 ? Long.MAX_VALUE : start + limits.millis() * 1_000_000L;
+    }
+
+    long nodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * @return the total nodes reported by every searcher so far
+     */
+    long addNodes(long count) {
+        return nodes.addAndGet(count);
+    }
+
+    /**
+     * @param total the shared node count
+     * @return true if the search has been stopped or is out of nodes or time
+     */
+    boolean shouldStop(long total) {
+        return stopped || total >= nodeLimit || System.nanoTime() > deadline;
+    }
+
+    /**
+     * Called by the main searcher after each completed iteration
+     *
+     * @param unreported nodes the main searcher has not reported yet
+     * @return true if no further iteration should be started
+     */
+    boolean iterationDone(int score, int depth, long unreported) {
+        if (stopped || Math.abs(score) >= Engine.MATE - depth || nodes.get() + unreported >= nodeLimit) {
+            return true;
+        }
+        // the next iteration would most likely not finish in time
+        return deadline != Long.MAX_VALUE && System.nanoTime() - start > (deadline - start) / 2;
+    }
+
+    void stop() {
+        stopped = true;
+    }
+}
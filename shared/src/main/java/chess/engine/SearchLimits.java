@@ -0,0 +1,54 @@
+package chess.engine;
+
+/**
+ * Bounds on a single {@link Engine#bestMove} call. The search stops at
+ * whichever limit it reaches first and returns the best move of the deepest
+ * iteration it completed. The first iteration always completes, so there is
+ * a move to play even when the budget is tiny.
+ *
+ * @param depth  deepest iteration to search, in plies
+ * @param nodes  most positions to visit
+ * @param millis wall-clock budget in milliseconds, or 0 for none
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+    public static final int MAX_DEPTH = Engine.MAX_PLY - 1;
+
+    public SearchLimits {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        if (nodes < 1) {
+            throw new IllegalArgumentException("Node limit must be positive: " + nodes);
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time limit must not be negative: " + millis);
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, 0L);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, 0L);
+    }
+
+    public static SearchLimits time(long millis) {
+        if (millis == 0) {
+            throw new IllegalArgumentException("Time limit must be positive");
+        }
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, millis);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withMillis(long millis) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+}
@@ -0,0 +1,49 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search.
+ *
+ * @param move                the move to play, or null if the side to move
+ *                            has no legal move
+ * @param score               centipawns from the point of view of the side
+ *                            to move; mates score near {@link Engine#MATE}
+ * @param depth               the deepest completed iteration, in plies, or
+ *                            0 for a move from the opening book
+ * @param nodes               positions visited by every thread, including
+ *                            quiescence
+ * @param millis              wall-clock time spent
+ * @param principalVariation  the expected line of play, starting with move
+ * @param threadNodes         positions visited by each thread, the main
+ *                            search first
+ */
+public record SearchResult(ChessMove move, int score, int depth, long nodes, long millis,
+                           List<ChessMove> principalVariation, List<Long> threadNodes) {
+
+    public SearchResult {
+        principalVariation = List.copyOf(principalVariation);
+        threadNodes = List.copyOf(threadNodes);
+    }
+
+    /**
+     * @return positions visited per second
+     */
+    public long nodesPerSecond() {
+        return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+    }
+
+    /**
+     * @return the number of moves until mate, positive when the side to move
+     * mates and negative when it is mated, or 0 if the score is not a mate
+     */
+    public int mateIn() {
+        if (Math.abs(score) < Engine.MATE - Engine.MAX_PLY) {
+            return 0;
+        }
+        int plies = Engine.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+}
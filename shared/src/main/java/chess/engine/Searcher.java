@@ -0,0 +1,507 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One search thread's share of an {@link Engine}: the alpha-beta and
+ * quiescence search, with the board, move lists and ordering tables it
+ * owns. Every searcher of an engine reads and writes the same
+ * transposition table, which is how their work is shared.
+ * <p>
+ * Searchers other than the main one are helpers. They skip the time and
+ * depth bookkeeping of the main searcher, can be stopped at any depth, and
+ * those with an odd id search one ply deeper on each iteration, so the
+ * threads spread out over different parts of the tree instead of all
+ * searching the same moves in the same order.
+ */
+final class Searcher {
+    private static final int MATE = Engine.MATE;
+    private static final int MAX_PLY = Engine.MAX_PLY;
+    private static final int INFINITY = MATE + 1;
+    // nodes between looks at the shared limits; a power of two
+    static final int CHECK_INTERVAL = 1024;
+
+    // move ordering scores; history scores stay below KILLER_SCORE
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 24;
+    private static final int KILLER_SCORE = 1 << 22;
+    private static final int MAX_HISTORY_SCORE = 1 << 20;
+    // value of each PieceType as a victim, in ordinal order
+    private static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+    // rank of each PieceType as an attacker, lower is tried first
+    private static final int[] ATTACKER_RANK = {6, 5, 3, 2, 4, 1};
+
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+    private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+
+    private final int id;
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private final MoveList[] lists = new MoveList[MAX_PLY];
+    private final int[][] scores = new int[MAX_PLY][256];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // indexed by color, from and to square
+    private final int[] history = new int[2 * 64 * 64];
+
+    // the game's position keys since its last irreversible move, followed by
+    // one key per ply of the line being searched
+    private long[] keys = new long[256];
+    private int rootIndex;
+
+    // endgame tables to probe, or null
+    private Tablebase tablebase;
+    private SearchControl control;
+    private ChessBoard board;
+    private ChessGame.TeamColor rootColor;
+    private long nodes;
+    private long reportedNodes;
+    private boolean canAbort;
+    private boolean aborted;
+    private int rootBest;
+
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+
+    Searcher(int id, TranspositionTable table, Evaluator evaluator) {
+        this.id = id;
+        this.table = table;
+        this.evaluator = evaluator;
+        for (int i = 0; i < MAX_PLY; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches the game with iterative deepening until the control stops it
+     * or the depth limit is reached. The main searcher also decides when the
+     * search is over and stops the control itself.
+     *
+     * @param game a fork of the game for this searcher alone; its board is
+     *             moved on during the search
+     */
+    void run(ChessGame game, SearchControl control, int maxDepth) {
+        this.control = control;
+        board = game.getBoard();
+        evaluator.reset(board);
+        board.setPieceListener(evaluator);
+        rootColor = game.getTeamTurn();
+        long[] past = game.getHistory();
+        if (keys.length < past.length + MAX_PLY) {
+            keys = new long[past.length + MAX_PLY];
+        }
+        System.arraycopy(past, 0, keys, 0, past.length);
+        rootIndex = past.length - 1;
+        keys[rootIndex] = game.getPositionKey();
+
+        nodes = 0L;
+        reportedNodes = 0L;
+        aborted = false;
+        bestScore = 0;
+        completedDepth = 0;
+        prepareTables();
+
+        boolean main = id == 0;
+        MoveList rootMoves = lists[0];
+        rootMoves.clear();
+        MoveGenerator.generateLegal(board, rootColor, rootMoves);
+        if (rootMoves.isEmpty()) {
+            bestMove = 0;
+            bestScore = inCheck(rootColor) ? -MATE : 0;
+            return;
+        }
+        bestMove = rootMoves.get(0);
+        if (rootMoves.size() == 1) {
+            maxDepth = 1;
+        }
+        for (int depth = main ? 1 : 1 + (id & 1); depth <= maxDepth; depth++) {
+            canAbort = !main || depth > 1;
+            int score = search(depth, 0, -INFINITY, INFINITY, rootColor, game.getHalfmoveClock());
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completedDepth = depth;
+            if (main && control.iterationDone(score, depth, nodes - reportedNodes)) {
+                break;
+            }
+        }
+        control.addNodes(nodes - reportedNodes);
+        reportedNodes = nodes;
+    }
+
+    int bestMove() {
+        return bestMove;
+    }
+
+    int bestScore() {
+        return bestScore;
+    }
+
+    int completedDepth() {
+        return completedDepth;
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Forgets the history scores learned in earlier searches
+     */
+    void clear() {
+        Arrays.fill(history, 0);
+    }
+
+    private int search(int depth, int ply, int alpha, int beta, ChessGame.TeamColor color, int clock) {
+        int index = rootIndex + ply;
+        if (ply > 0) {
+            if (clock >= 100 || isRepetition(index, clock) || board.isInsufficientMaterial()) {
+                return 0;
+            }
+            if (tablebase != null && Long.bitCount(board.getOccupied()) <= 3) {
+                int score = tablebase.probe(board, color);
+                if (score != Tablebase.UNKNOWN) {
+                    return score > 0 ? score - ply : score < 0 ? score + ply : 0;
+                }
+            }
+            if (ply >= MAX_PLY - 1) {
+                return evaluator.evaluate(color);
+            }
+        }
+        boolean inCheck = inCheck(color);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta, color);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = keys[index];
+        long entry = table.probe(key);
+        if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, ply, color, TranspositionTable.move(entry));
+
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long pawns = board.getPieces(color, ChessPiece.PieceType.PAWN);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            boolean irreversible = PackedMove.isCapture(move) || (pawns & (1L << PackedMove.from(move))) != 0;
+            int childClock = irreversible ? 0 : clock + 1;
+            board.doMove(move);
+            keys[index + 1] = positionKey(enemy);
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha, enemy, childClock);
+            } else {
+                score = -search(depth - 1, ply + 1, -alpha - 1, -alpha, enemy, childClock);
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha, enemy, childClock);
+                }
+            }
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    if (!PackedMove.isCapture(move) && PackedMove.promotion(move) == null) {
+                        rewardQuietMove(move, ply, color, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bound == TranspositionTable.UPPER ? 0 : bestMove, bound, depth, toTable(best, ply));
+        return best;
+    }
+
+    /**
+     * Searches captures and queen promotions until the position is quiet,
+     * letting the side to move stand pat on the static evaluation. In check
+     * every evasion is searched instead, since standing pat is not an option.
+     */
+    private int quiesce(int ply, int alpha, int beta, ChessGame.TeamColor color) {
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(color);
+        }
+        boolean inCheck = inCheck(color);
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluator.evaluate(color);
+            if (best >= beta) {
+                return best;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+        }
+
+        MoveList moves = lists[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        if (inCheck && moves.isEmpty()) {
+            return -MATE + ply;
+        }
+        scoreMoves(moves, ply, color, 0);
+
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            if (!inCheck && scores[ply][i] < CAPTURE_SCORE) {
+                break;
+            }
+            board.doMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha, enemy);
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void scoreMoves(MoveList moves, int ply, ChessGame.TeamColor color, int ttMove) {
+        int[] moveScores = scores[ply];
+        int[] plyKillers = killers[ply];
+        int colorBase = color.ordinal() << 12;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = PackedMove.from(move);
+            int to = PackedMove.to(move);
+            ChessPiece.PieceType promotion = PackedMove.promotion(move);
+            int score;
+            if (ttMove != 0 && PackedMove.sameMove(move, ttMove)) {
+                score = TT_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move)) {
+                int victim = PackedMove.isEnPassant(move) ? PAWN : board.getPiece(to).getPieceType().ordinal();
+                int attacker = board.getPiece(from).getPieceType().ordinal();
+                score = CAPTURE_SCORE + VALUES[victim] * 8 - ATTACKER_RANK[attacker];
+                if (promotion == ChessPiece.PieceType.QUEEN) {
+                    score += VALUES[QUEEN];
+                }
+            } else if (promotion == ChessPiece.PieceType.QUEEN) {
+                score = CAPTURE_SCORE + VALUES[QUEEN];
+            } else if (PackedMove.sameMove(move, plyKillers[0])) {
+                score = KILLER_SCORE + 1;
+            } else if (PackedMove.sameMove(move, plyKillers[1])) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[colorBase | (from << 6) | to];
+            }
+            moveScores[i] = score;
+        }
+    }
+
+    /**
+     * Moves the highest scoring of the moves from index on to index, so the
+     * list is sorted lazily as far as the search gets before a cutoff
+     */
+    private int pickNext(MoveList moves, int ply, int index) {
+        int[] moveScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (moveScores[i] > moveScores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = moveScores[best];
+            moveScores[best] = moveScores[index];
+            moveScores[index] = score;
+        }
+        return move;
+    }
+
+    private void rewardQuietMove(int move, int ply, ChessGame.TeamColor color, int depth) {
+        int[] plyKillers = killers[ply];
+        if (!PackedMove.sameMove(move, plyKillers[0])) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int slot = (color.ordinal() << 12) | (PackedMove.from(move) << 6) | PackedMove.to(move);
+        history[slot] += depth * depth;
+        if (history[slot] > MAX_HISTORY_SCORE) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Ages what earlier searches learned: killers are cleared since their
+     * plies now refer to other positions, and history scores are halved.
+     */
+    private void prepareTables() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Counts a node and checks the limits. The shared node count, the clock
+     * and the stop flag are only looked at every {@value #CHECK_INTERVAL}
+     * nodes, so threads rarely touch shared memory.
+     *
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            long total = control.addNodes(nodes - reportedNodes);
+            reportedNodes = nodes;
+            if (canAbort && control.shouldStop(total)) {
+                aborted = true;
+            }
+        }
+        if (canAbort && nodes >= control.nodeLimit()) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * @return true if the position at the index occurred before in the line
+     * or the game, with the same side to move and no irreversible move since
+     */
+    private boolean isRepetition(int index, int clock) {
+        long key = keys[index];
+        int oldest = Math.max(0, index - clock);
+        for (int i = index - 4; i >= oldest; i -= 2) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows the transposition table's best moves from the root, as far as
+     * this searcher's completed depth
+     */
+    List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>();
+        ChessGame.TeamColor color = rootColor;
+        int move = bestMove;
+        int played = 0;
+        while (move != 0 && played < completedDepth) {
+            MoveList legal = lists[played];
+            legal.clear();
+            MoveGenerator.generateLegal(board, color, legal);
+            int index = legal.indexOf(move);
+            if (index < 0) {
+                break;
+            }
+            move = legal.get(index);
+            line.add(PackedMove.toChessMove(move));
+            board.doMove(move);
+            played++;
+            color = ChessGame.opponent(color);
+            move = TranspositionTable.move(table.probe(positionKey(color)));
+        }
+        for (; played > 0; played--) {
+            board.undoMove();
+        }
+        return line;
+    }
+
+    private boolean inCheck(ChessGame.TeamColor color) {
+        int king = board.getKingSquare(color);
+        return king >= 0 && board.isSquareAttacked(king, ChessGame.opponent(color));
+    }
+
+    private long positionKey(ChessGame.TeamColor toMove) {
+        return board.getKey() ^ board.getRuleKey() ^ Zobrist.side(toMove);
+    }
+
+    /**
+     * Mate scores are stored relative to the node rather than the root, so
+     * an entry reached at a different ply still gives the right distance
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
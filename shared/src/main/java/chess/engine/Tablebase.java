@@ -0,0 +1,182 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Distance-to-mate tables for a king and one piece against a lone king,
+ * memory-mapped from the files {@link TablebaseGenerator} writes.
+ * <p>
+ * A table has one byte per position: 0 for a draw, otherwise the number of
+ * plies to mate plus one, so a side to move that is mated scores 1 and odd
+ * distances are wins for the side to move. Positions are stored with the
+ * stronger side as white and its king on files a-d, mirroring the board to
+ * get there, which makes a table {@value #SIZE} bytes. A probe is a few
+ * bit operations and one byte read from the mapping; it allocates nothing.
+ * <p>
+ * Tables assume no castling rights, so positions with any are not probed,
+ * and know nothing of the fifty-move rule.
+ */
+public final class Tablebase {
+    /**
+     * What {@link #probe} returns for a position no table covers
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    // positions per table: side to move, strong king, weak king, piece
+    static final int SIZE = 2 * 32 * 64 * 64;
+
+    private static final Endgame[] ENDGAMES = Endgame.values();
+
+    // indexed by endgame ordinal, null for a missing table
+    private final MappedByteBuffer[] tables;
+
+    private Tablebase(MappedByteBuffer[] tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * The endgames the tables cover
+     */
+    public enum Endgame {
+        KQK(ChessPiece.PieceType.QUEEN),
+        KRK(ChessPiece.PieceType.ROOK),
+        KPK(ChessPiece.PieceType.PAWN);
+
+        private final ChessPiece.PieceType piece;
+
+        Endgame(ChessPiece.PieceType piece) {
+            this.piece = piece;
+        }
+
+        /**
+         * @return the stronger side's piece besides its king
+         */
+        public ChessPiece.PieceType piece() {
+            return piece;
+        }
+
+        /**
+         * @return the table's file name within a tablebase directory
+         */
+        public String fileName() {
+            return name().toLowerCase() + ".tb";
+        }
+
+        /**
+         * @return the endgame with the given extra piece, or null if there
+         * is none
+         */
+        static Endgame of(ChessPiece.PieceType piece) {
+            for (Endgame endgame : ENDGAMES) {
+                if (endgame.piece == piece) {
+                    return endgame;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Maps every table found in the directory. Missing tables are allowed,
+     * and their positions probe as {@link #UNKNOWN}.
+     *
+     * @throws IllegalArgumentException if a table file has the wrong size
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        MappedByteBuffer[] tables = new MappedByteBuffer[ENDGAMES.length];
+        for (Endgame endgame : ENDGAMES) {
+            Path file = directory.resolve(endgame.fileName());
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() != SIZE) {
+                    throw new IllegalArgumentException("Table " + file + " has " + channel.size()
+                            + " bytes instead of " + SIZE);
+                }
+                tables[endgame.ordinal()] = channel.map(FileChannel.MapMode.READ_ONLY, 0, SIZE);
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    /**
+     * @return true if the endgame's table was found
+     */
+    public boolean has(Endgame endgame) {
+        return tables[endgame.ordinal()] != null;
+    }
+
+    public int probe(ChessGame game) {
+        return probe(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * Looks the position up in its table.
+     *
+     * @param turn the side to move
+     * @return {@link #UNKNOWN} if no table covers the position, 0 for a draw,
+     * or a score in the form of {@link Engine#MATE}: {@code MATE - n} if the
+     * side to move mates in n plies, {@code n - MATE} if it is mated in n
+     */
+    public int probe(ChessBoard board, ChessGame.TeamColor turn) {
+        long occupied = board.getOccupied();
+        if (Long.bitCount(occupied) != 3 || board.getCastlingRights() != 0) {
+            return UNKNOWN;
+        }
+        ChessGame.TeamColor strong = Long.bitCount(board.getTeamPieces(ChessGame.TeamColor.WHITE)) == 2
+                ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessGame.TeamColor weak = ChessGame.opponent(strong);
+        int strongKing = board.getKingSquare(strong);
+        int weakKing = board.getKingSquare(weak);
+        if (strongKing < 0 || weakKing < 0) {
+            return UNKNOWN;
+        }
+        int piece = Bitboards.first(board.getTeamPieces(strong) & ~Bitboards.bit(strongKing));
+        MappedByteBuffer table = null;
+        for (Endgame endgame : ENDGAMES) {
+            if (board.getPieces(strong, endgame.piece) != 0) {
+                table = tables[endgame.ordinal()];
+            }
+        }
+        if (table == null) {
+            return UNKNOWN;
+        }
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        return score(table.get(index(strongKing ^ flip, weakKing ^ flip, piece ^ flip, turn != strong)) & 0xFF);
+    }
+
+    /**
+     * @return the score of a table entry, see {@link #probe(ChessBoard, ChessGame.TeamColor)}
+     */
+    static int score(int value) {
+        if (value == 0) {
+            return 0;
+        }
+        int plies = value - 1;
+        return (plies & 1) == 1 ? Engine.MATE - plies : plies - Engine.MATE;
+    }
+
+    /**
+     * @param weakToMove true if the side without the piece is to move
+     * @return the table index of a position with the stronger side as white
+     */
+    static int index(int strongKing, int weakKing, int piece, boolean weakToMove) {
+        if ((strongKing & 7) >= 4) {
+            strongKing ^= 7;
+            weakKing ^= 7;
+            piece ^= 7;
+        }
+        int king = (strongKing >>> 3) * 4 + (strongKing & 7);
+        return ((((weakToMove ? 32 : 0) + king) * 64 + weakKing) << 6) + piece;
+    }
+}
@@ -0,0 +1,256 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes {@link Tablebase} tables by retrograde analysis.
+ * <p>
+ * A first pass visits every position of the table once, with the move
+ * generator, and records the positions each legal move leads to, or the
+ * value of the result outright when the move leaves the table: a capture
+ * is a draw, and a promotion continues in the table of the promoted piece.
+ * Positions without moves are mates or stalemates. Each later pass works
+ * back from the mates one ply at a time: at odd plies a position is won if
+ * a move reaches a position already lost, and at even plies it is lost if
+ * every move reaches a position already won. When passes stop finding
+ * anything, the positions left are draws.
+ * <p>
+ * Every pass is split across a fork/join pool by ranges of the table, and
+ * each position is written only by the task that owns it. A pass reads
+ * only values settled in earlier passes, so the order the tasks run in
+ * does not matter.
+ */
+public final class TablebaseGenerator {
+    // positions per fork/join task
+    private static final int BLOCK = 4096;
+
+    private final ForkJoinPool pool;
+    private final Map<Tablebase.Endgame, byte[]> tables = new EnumMap<>(Tablebase.Endgame.class);
+
+    public TablebaseGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes a table, and first any table it promotes into
+     *
+     * @return one byte per position, laid out as {@link Tablebase} reads it
+     */
+    public byte[] generate(Tablebase.Endgame endgame) {
+        byte[] table = tables.get(endgame);
+        if (table == null) {
+            if (endgame.piece() == ChessPiece.PieceType.PAWN) {
+                generate(Tablebase.Endgame.KQK);
+                generate(Tablebase.Endgame.KRK);
+            }
+            table = new Build(endgame).run();
+            tables.put(endgame, table);
+        }
+        return table;
+    }
+
+    /**
+     * Computes every table and writes them to the directory
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Tablebase.Endgame endgame : Tablebase.Endgame.values()) {
+            Files.write(directory.resolve(endgame.fileName()), generate(endgame));
+        }
+    }
+
+    /**
+     * Writes every table: {@code TablebaseGenerator <directory>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: TablebaseGenerator <directory>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        new TablebaseGenerator(ForkJoinPool.commonPool()).write(Path.of(args[0]));
+        System.out.printf("Wrote %d tables in %d ms%n", Tablebase.Endgame.values().length,
+                (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /**
+     * The work of computing one table
+     */
+    private final class Build {
+        private final Tablebase.Endgame endgame;
+        private final byte[] values = new byte[Tablebase.SIZE];
+        // per position, the table index each move leads to, or -1 - the
+        // value reached when it leaves the table; null for a position that
+        // is not legal or has no moves
+        private final int[][] successors = new int[Tablebase.SIZE][];
+
+        Build(Tablebase.Endgame endgame) {
+            this.endgame = endgame;
+        }
+
+        byte[] run() {
+            int latestOutside = pool.invoke(new Pass(0, Tablebase.SIZE, -1));
+            int quiet = 0;
+            for (int ply = 1; quiet < 2 || ply <= latestOutside; ply++) {
+                if (ply >= 255) {
+                    throw new IllegalStateException(endgame + " has mates too long to store");
+                }
+                quiet = pool.invoke(new Pass(0, Tablebase.SIZE, ply)) == 0 ? quiet + 1 : 0;
+            }
+            return values;
+        }
+
+        /**
+         * Records the successors of the positions in the range
+         *
+         * @return the largest value of a successor outside the table
+         */
+        int expand(int start, int end) {
+            ChessBoard board = new ChessBoard();
+            MoveList moves = new MoveList();
+            ChessPiece strongKing = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+            ChessPiece weakKing = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+            ChessPiece piece = ChessPiece.of(ChessGame.TeamColor.WHITE, endgame.piece());
+            int latest = 0;
+            for (int index = start; index < end; index++) {
+                int pieceSquare = index & 63;
+                int weakSquare = (index >>> 6) & 63;
+                int king = (index >>> 12) & 31;
+                int strongSquare = (king >>> 2) * 8 + (king & 3);
+                ChessGame.TeamColor turn = index >= Tablebase.SIZE / 2
+                        ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                if (strongSquare == weakSquare || pieceSquare == strongSquare || pieceSquare == weakSquare
+                        || (endgame.piece() == ChessPiece.PieceType.PAWN
+                        && (Bitboards.bit(pieceSquare) & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0)) {
+                    continue;
+                }
+                board.addPiece(strongSquare, strongKing);
+                board.addPiece(weakSquare, weakKing);
+                board.addPiece(pieceSquare, piece);
+                ChessGame.TeamColor waiting = ChessGame.opponent(turn);
+                if (!board.isSquareAttacked(board.getKingSquare(waiting), turn)) {
+                    moves.clear();
+                    MoveGenerator.generateLegal(board, turn, moves);
+                    if (moves.isEmpty()) {
+                        boolean mated = board.isSquareAttacked(board.getKingSquare(turn), waiting);
+                        values[index] = (byte) (mated ? 1 : 0);
+                    } else {
+                        int[] next = new int[moves.size()];
+                        for (int i = 0; i < next.length; i++) {
+                            board.doMove(moves.get(i));
+                            next[i] = successor(board, waiting);
+                            board.undoMove();
+                            if (next[i] < 0) {
+                                latest = Math.max(latest, -1 - next[i]);
+                            }
+                        }
+                        successors[index] = next;
+                    }
+                }
+                board.addPiece(strongSquare, null);
+                board.addPiece(weakSquare, null);
+                board.addPiece(pieceSquare, null);
+            }
+            return latest;
+        }
+
+        /**
+         * @return the table index of the board, or -1 - its value if it has
+         * left the table
+         */
+        private int successor(ChessBoard board, ChessGame.TeamColor turn) {
+            if (Long.bitCount(board.getOccupied()) == 2) {
+                return -1;
+            }
+            int strongKing = board.getKingSquare(ChessGame.TeamColor.WHITE);
+            int weakKing = board.getKingSquare(ChessGame.TeamColor.BLACK);
+            int piece = Bitboards.first(board.getTeamPieces(ChessGame.TeamColor.WHITE)
+                    & ~Bitboards.bit(strongKing));
+            int index = Tablebase.index(strongKing, weakKing, piece, turn == ChessGame.TeamColor.BLACK);
+            if (board.getPieces(ChessGame.TeamColor.WHITE, endgame.piece()) != 0) {
+                return index;
+            }
+            Tablebase.Endgame promoted = Tablebase.Endgame.of(board.getPiece(piece).getPieceType());
+            return promoted == null ? -1 : -1 - (tables.get(promoted)[index] & 0xFF);
+        }
+
+        /**
+         * Settles the positions of the range whose value is mate in the
+         * given number of plies
+         *
+         * @return how many positions were settled
+         */
+        int settle(int start, int end, int ply) {
+            boolean winning = (ply & 1) == 1;
+            int settled = 0;
+            for (int index = start; index < end; index++) {
+                int[] next = successors[index];
+                if (values[index] != 0 || next == null) {
+                    continue;
+                }
+                boolean found = !winning;
+                for (int successor : next) {
+                    int value = successor >= 0 ? values[successor] & 0xFF : -1 - successor;
+                    // settled before this ply, and lost for the player to move there
+                    boolean lost = value != 0 && value <= ply && (value & 1) == 1;
+                    boolean won = value != 0 && value <= ply && (value & 1) == 0;
+                    if (winning && lost) {
+                        found = true;
+                        break;
+                    }
+                    if (!winning && !won) {
+                        found = false;
+                        break;
+                    }
+                }
+                if (found) {
+                    values[index] = (byte) (ply + 1);
+                    settled++;
+                }
+            }
+            return settled;
+        }
+
+        /**
+         * One pass over a range of the table, split into fork/join tasks.
+         * Ply -1 is the first pass, which records successors.
+         */
+        private final class Pass extends RecursiveTask<Integer> {
+            private final int start;
+            private final int end;
+            private final int ply;
+
+            Pass(int start, int end, int ply) {
+                this.start = start;
+                this.end = end;
+                this.ply = ply;
+            }
+
+            @Override
+            protected Integer compute() {
+                if (end - start <= BLOCK) {
+                    return ply < 0 ? expand(start, end) : settle(start, end, ply);
+                }
+                int middle = (start + end) >>> 1;
+                Pass low = new Pass(start, middle, ply);
+                low.fork();
+                int high = new Pass(middle, end, ply).compute();
+                int lowResult = low.join();
+                return ply < 0 ? Math.max(lowResult, high) : lowResult + high;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by position key, shared
+ * by every search thread of an engine without locks. Each slot is two longs
+ * in one array: the key XORed with the packed entry, then the entry itself.
+ * A reader only accepts an entry when XORing the two gives back its key, so
+ * a slot half written by another thread, or torn between two writers, reads
+ * as a miss instead of as another position's result.
+ * <pre>
+ * bits  0-19  best move, see {@link chess.PackedMove}, 0 for none
+ * bits 20-21  bound: EXACT, LOWER or UPPER
+ * bits 22-29  depth
+ * bits 30-37  generation of the search that stored it
+ * bits 48-63  score
+ * </pre>
+ * Slots are replaced when they belong to an older search or hold a
+ * shallower result. Two threads storing into one slot at once can lose one
+ * of the results, which only costs the search some work.
+ */
+final class TranspositionTable {
+    static final int EXACT = 1;
+    static final int LOWER = 2;
+    static final int UPPER = 3;
+
+    private final long[] table;
+    private final int mask;
+    // only changed between searches, while no searcher is running
+    private int generation;
+
+    /**
+     * @param megabytes memory to use, rounded down to a power of two slots
+     */
+    TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + megabytes);
+        }
+        long slots = Long.highestOneBit(megabytes * (1L << 20) / 16);
+        int size = (int) Math.min(slots, 1 << 29);
+        table = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so the previous search's entries are
+     * replaced first
+     */
+    void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * @return the packed entry for the key, or 0 if there is none
+     */
+    long probe(long key) {
+        int slot = ((int) key & mask) << 1;
+        long entry = table[slot + 1];
+        return (table[slot] ^ entry) == key ? entry : 0L;
+    }
+
+    void store(long key, int move, int bound, int depth, int score) {
+        int slot = ((int) key & mask) << 1;
+        long old = table[slot + 1];
+        if ((table[slot] ^ old) == key) {
+            if (move == 0) {
+                move = move(old);
+            }
+        } else if (old != 0 && generation(old) == generation && depth < depth(old)) {
+            return;
+        }
+        long entry = (move & 0xFFFFFL) | ((long) bound << 20) | ((long) depth << 22)
+                | ((long) generation << 30) | ((long) score << 48);
+        table[slot] = key ^ entry;
+        table[slot + 1] = entry;
+    }
+
+    static int move(long entry) {
+        return (int) (entry & 0xFFFFF);
+    }
+
+    static int bound(long entry) {
+        return (int) ((entry >>> 20) & 3);
+    }
+
+    static int depth(long entry) {
+        return (int) ((entry >>> 22) & 0xFF);
+    }
+
+    static int score(long entry) {
+        return (int) (entry >> 48);
+    }
+
+    private static int generation(long entry) {
+        return (int) ((entry >>> 30) & 0xFF);
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * What the server reports about a position: its legal moves and status, and
+ * when a search was asked for, the best move found and its score.
+ *
+ * @param fen        the position analyzed
+ * @param turn       the side to move
+ * @param status     the position's status for the side to move
+ * @param legalMoves every legal move of the side to move
+ * @param depth      depth searched, 0 if there was no search
+ * @param bestMove   the best move found, or null without a search
+ * @param score      centipawns for the side to move, or null without a search
+ * @param mateIn     moves to mate, negative when being mated, or null if no
+ *                   mate was found
+ */
+public record AnalysisData(String fen, ChessGame.TeamColor turn, ChessGame.GameStatus status,
+                           List<ChessMove> legalMoves, int depth, ChessMove bestMove, Integer score,
+                           Integer mateIn) { }
@@ -0,0 +1,24 @@
+package websocket.commands;
+
+/**
+ * Asks for an analysis of a game's position, or of a FEN position when one
+ * is given, searched to the given depth; depth 0 skips the search
+ */
+public class AnalyzeCommand extends UserGameCommand {
+    private final String fen;
+    private final int depth;
+
+    public AnalyzeCommand(String authToken, Integer gameID, String fen, int depth) {
+        super(CommandType.ANALYZE, authToken, gameID);
+        this.fen = fen;
+        this.depth = depth;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,17 @@
+package websocket.messages;
+
+import model.AnalysisData;
+
+public class Analysis extends ServerMessage {
+
+    AnalysisData analysis;
+
+    public Analysis(AnalysisData analysis) {
+        super(ServerMessageType.ANALYSIS);
+        this.analysis = analysis;
+    }
+
+    public AnalysisData getAnalysis() {
+        return analysis;
+    }
+}
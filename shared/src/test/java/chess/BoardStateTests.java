@@ -0,0 +1,118 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Tests that incremental board state survives making and taking back moves.
+ */
+public class BoardStateTests {
+
+    @Test
+    @DisplayName("Undo Restores Board")
+    public void undoRestoresBoard() {
+        Random random = new Random(3);
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 200; ply++) {
+            ChessBoard board = game.getBoard();
+            ChessBoard before = copyOf(board);
+            long ruleKey = board.getRuleKey();
+            Assertions.assertEquals(before.getKey(), board.getKey(), "Incremental key differs from a fresh board");
+            moves.clear();
+            MoveGenerator.generate(board, game.getTeamTurn(), moves);
+            for (int i = 0; i < moves.size(); i++) {
+                board.doMove(moves.get(i));
+                board.undoMove();
+                Assertions.assertEquals(before, board, "Board changed after undoing " + moves.get(i));
+                Assertions.assertEquals(ruleKey, board.getRuleKey(), "Rule state changed after undoing " + moves.get(i));
+                Assertions.assertEquals(before.getKingSquare(ChessGame.TeamColor.WHITE),
+                        board.getKingSquare(ChessGame.TeamColor.WHITE));
+                Assertions.assertEquals(before.getKingSquare(ChessGame.TeamColor.BLACK),
+                        board.getKingSquare(ChessGame.TeamColor.BLACK));
+            }
+            if (!playRandomMove(game, random)) {
+                game = new ChessGame();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Status Follows Board Changes")
+    public void statusFollowsBoardChanges() {
+        Random random = new Random(5);
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 2000; ply++) {
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            moves.clear();
+            game.legalMoves(turn, moves);
+            ChessGame.GameStatus expected = moves.isEmpty()
+                    ? (game.isInCheck(turn) ? ChessGame.GameStatus.CHECKMATE : ChessGame.GameStatus.STALEMATE)
+                    : (game.isInCheck(turn) ? ChessGame.GameStatus.CHECK : ChessGame.GameStatus.NORMAL);
+            if (!moves.isEmpty() && game.getBoard().isInsufficientMaterial()) {
+                expected = ChessGame.GameStatus.DRAW_INSUFFICIENT_MATERIAL;
+            } else if (!moves.isEmpty() && game.isRepetition()) {
+                expected = ChessGame.GameStatus.DRAW_REPETITION;
+            } else if (!moves.isEmpty() && game.getHalfmoveClock() >= 100) {
+                expected = ChessGame.GameStatus.DRAW_FIFTY_MOVE;
+            }
+            Assertions.assertEquals(expected, game.getStatus());
+            Assertions.assertEquals(expected, game.getStatus(), "Cached status changed");
+            if (!playRandomMove(game, random)) {
+                game = new ChessGame();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Forks Move Independently")
+    public void forksMoveIndependently() {
+        Random random = new Random(7);
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 300; ply++) {
+            ChessBoard before = copyOf(game.getBoard());
+            long key = game.getPositionKey();
+            ChessGame fork = game.fork();
+            Assertions.assertEquals(game, fork);
+            Assertions.assertEquals(key, fork.getPositionKey());
+            Assertions.assertArrayEquals(game.getHistory(), fork.getHistory());
+            if (playRandomMove(fork, random)) {
+                Assertions.assertEquals(before, game.getBoard(), "Moving the fork changed the game");
+                Assertions.assertEquals(key, game.getPositionKey());
+                Assertions.assertEquals(copyOf(fork.getBoard()).getKey(), fork.getBoard().getKey(),
+                        "Incremental key of the fork differs from a fresh board");
+            }
+            if (!playRandomMove(game, random)) {
+                game = new ChessGame();
+            }
+        }
+    }
+
+    static boolean playRandomMove(ChessGame game, Random random) {
+        MoveList legal = new MoveList();
+        for (long own = game.getBoard().getTeamPieces(game.getTeamTurn()); own != 0; own &= own - 1) {
+            game.legalMoves(Bitboards.first(own), legal);
+        }
+        if (legal.isEmpty()) {
+            return false;
+        }
+        try {
+            game.makeMove(PackedMove.toChessMove(legal.get(random.nextInt(legal.size()))));
+        } catch (InvalidMoveException e) {
+            Assertions.fail(e);
+        }
+        return true;
+    }
+
+    static ChessBoard copyOf(ChessBoard board) {
+        ChessBoard copy = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            copy.addPiece(square, board.getPiece(square));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,94 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for the binary game encoding.
+ */
+public class ChessGameCodecTests {
+
+    @Test
+    @DisplayName("Encoded Games Decode To Equal Games")
+    public void roundTrip() {
+        Random random = new Random(13);
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 300; ply++) {
+            game.setOver(ply % 7 == 0);
+            byte[] data = ChessGameCodec.encode(game);
+            Assertions.assertEquals(ChessGameCodec.encodedSize(game), data.length);
+            ChessGame decoded = ChessGameCodec.decode(data);
+            Assertions.assertEquals(game, decoded);
+            Assertions.assertEquals(game.getBoard(), decoded.getBoard());
+            Assertions.assertEquals(game.getBoard().getKey(), decoded.getBoard().getKey());
+            Assertions.assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+            Assertions.assertArrayEquals(game.getHistory(), decoded.getHistory());
+            game.setOver(false);
+            if (!BoardStateTests.playRandomMove(game, random)) {
+                game = new ChessGame();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Codec Reads And Writes In Place")
+    public void encodesAtBufferPosition() {
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        second.setTeamTurn(ChessGame.TeamColor.BLACK);
+        second.getBoard().addPiece(new ChessPosition(2, 5), null);
+
+        ByteBuffer buffer = ByteBuffer.allocate(
+                ChessGameCodec.encodedSize(first) + ChessGameCodec.encodedSize(second) + 1);
+        buffer.put((byte) 42);
+        ChessGameCodec.encode(first, buffer);
+        ChessGameCodec.encode(second, buffer);
+        Assertions.assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        Assertions.assertEquals(42, buffer.get());
+        Assertions.assertEquals(first, ChessGameCodec.decode(buffer));
+        Assertions.assertEquals(second, ChessGameCodec.decode(buffer));
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Invalid Encodings Are Rejected")
+    public void rejectsInvalidData() {
+        byte[] data = ChessGameCodec.encode(new ChessGame());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGameCodec.decode(new byte[ChessGameCodec.HEADER_SIZE - 1]));
+
+        byte[] wrongVersion = data.clone();
+        wrongVersion[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(wrongVersion));
+
+        byte[] badPiece = data.clone();
+        badPiece[20] = (byte) 0xFF;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(badPiece));
+
+        byte[] missingHistory = Arrays.copyOf(data, ChessGameCodec.HEADER_SIZE);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(missingHistory));
+
+        byte[] historyBeforeClock = Arrays.copyOf(data, data.length + Long.BYTES);
+        historyBeforeClock[ChessGameCodec.HEADER_SIZE] = 1;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(historyBeforeClock));
+    }
+
+    @Test
+    @DisplayName("Size Grows With The Moves Since A Capture Or Pawn Move")
+    public void sizeFollowsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGameCodec.HEADER_SIZE + 1, ChessGameCodec.encode(game).length);
+        for (String move : new String[]{"g1f3", "g8f6", "f3g1"}) {
+            game.makeMove(ChessMove.of(ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+        }
+        Assertions.assertEquals(ChessGameCodec.HEADER_SIZE + 1 + 3 * Long.BYTES, ChessGameCodec.encode(game).length);
+    }
+}
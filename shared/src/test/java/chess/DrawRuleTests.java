@@ -0,0 +1,221 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests for threefold repetition, the fifty-move rule and insufficient
+ * material.
+ */
+public class DrawRuleTests {
+    private static final String[] KNIGHT_SHUFFLE = {"g1f3", "g8f6", "f3g1", "f6g8"};
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertFalse(game.isRepetition(), "Position has only occurred twice");
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertTrue(game.isRepetition());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_REPETITION, game.getStatus());
+        Assertions.assertEquals(8, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Clears Repetition History")
+    public void pawnMoveClearsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        play(game, "e2e3", "e7e6");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertFalse(game.isRepetition());
+        play(game, KNIGHT_SHUFFLE);
+        Assertions.assertTrue(game.isRepetition());
+    }
+
+    @Test
+    @DisplayName("Setting The Turn Keeps History")
+    public void settingTurnKeepsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        play(game, "g1f3");
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(5, game.getHalfmoveClock());
+        play(game, "g8f6", "f3g1", "f6g8");
+        Assertions.assertTrue(game.isRepetition());
+    }
+
+    @Test
+    @DisplayName("Repetition Of A Set Up Position")
+    public void repetitionOfSetUpPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        play(game, "g8f6", "g1f3", "f6g8", "f3g1");
+        Assertions.assertFalse(game.isRepetition(), "Position has only occurred twice");
+        play(game, "g8f6", "g1f3", "f6g8", "f3g1");
+        Assertions.assertTrue(game.isRepetition());
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 98 80");
+        play(game, "a1a2");
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        play(game, "e8d8");
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_FIFTY_MOVE, game.getStatus());
+
+        game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        play(game, "e2e4");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+    }
+
+    @Test
+    @DisplayName("Checkmate Takes Precedence Over The Fifty-Move Rule")
+    public void checkmateBeatsFiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("7k/8/6K1/8/8/8/8/R7 w - - 99 80");
+        play(game, "a1a8");
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+    }
+
+    @Test
+    @DisplayName("History Survives Serialization")
+    public void historySurvivesSerialization() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        play(game, "g1f3", "g8f6", "f3g1");
+
+        Gson gson = new Gson();
+        ChessGame fromJson = gson.fromJson(gson.toJson(game), ChessGame.class);
+        ChessGame fromCodec = ChessGameCodec.decode(ChessGameCodec.encode(game));
+        for (ChessGame copy : new ChessGame[]{fromJson, fromCodec}) {
+            Assertions.assertFalse(copy.isRepetition());
+            play(copy, "f6g8");
+            Assertions.assertEquals(ChessGame.GameStatus.DRAW_REPETITION, copy.getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("JSON Carries Only The Live History")
+    public void jsonCarriesLiveHistory() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        Assertions.assertFalse(gson.toJson(game).contains("history"));
+
+        play(game, "g1f3", "g8f6");
+        JsonObject json = gson.toJsonTree(game).getAsJsonObject();
+        Assertions.assertEquals(2, json.get("halfmoveClock").getAsInt());
+        Assertions.assertEquals(2, json.getAsJsonArray("history").size());
+    }
+
+    @Test
+    @DisplayName("Malformed History Is Rejected")
+    public void malformedHistoryRejected() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        play(game, "g1f3", "g8f6");
+        JsonObject json = gson.toJsonTree(game).getAsJsonObject();
+
+        JsonObject tooLong = json.deepCopy();
+        tooLong.addProperty("halfmoveClock", 1);
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson(tooLong, ChessGame.class));
+        JsonObject negative = json.deepCopy();
+        negative.addProperty("halfmoveClock", -1);
+        negative.remove("history");
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson(negative, ChessGame.class));
+        JsonObject noBoard = json.deepCopy();
+        noBoard.remove("board");
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson(noBoard, ChessGame.class));
+
+        JsonObject noHistory = json.deepCopy();
+        noHistory.remove("history");
+        ChessGame restored = gson.fromJson(noHistory, ChessGame.class);
+        Assertions.assertEquals(game, restored);
+        Assertions.assertEquals(2, restored.getHalfmoveClock());
+        Assertions.assertFalse(restored.isRepetition());
+    }
+
+    @Test
+    @DisplayName("Forks Keep History But Move Independently")
+    public void forksKeepHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        play(game, "g1f3", "g8f6", "f3g1");
+
+        ChessGame fork = game.fork();
+        play(fork, "f6g8");
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_REPETITION, fork.getStatus());
+        Assertions.assertEquals(7, game.getHalfmoveClock());
+        play(game, "b8c6");
+        Assertions.assertFalse(game.isRepetition());
+        play(fork, "g1f3");
+        Assertions.assertEquals(9, fork.getHalfmoveClock());
+        Assertions.assertArrayEquals(Arrays.copyOf(game.getHistory(), 8), Arrays.copyOf(fork.getHistory(), 8));
+        Assertions.assertNotEquals(game.getHistory()[8], fork.getHistory()[8]);
+    }
+
+    @Test
+    @DisplayName("Insufficient Material")
+    public void insufficientMaterial() {
+        String[] drawn = {
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4KN2 w - - 0 1",
+                "4kb2/8/8/8/8/8/8/4K3 w - - 0 1",
+                "2b1k3/8/8/8/8/8/8/4KB2 w - - 0 1",
+                "4k3/8/8/8/8/8/8/B1B1K3 w - - 0 1",
+        };
+        String[] playable = {
+                "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/R3K3 w - - 0 1",
+                "3qk3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4kb2/8/8/8/8/8/8/4KB2 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4KNN1 w - - 0 1",
+                "4kn2/8/8/8/8/8/8/4KB2 w - - 0 1",
+        };
+        for (String fen : drawn) {
+            ChessGame game = ChessGame.fromFen(fen);
+            Assertions.assertTrue(game.getBoard().isInsufficientMaterial(), fen);
+            Assertions.assertEquals(ChessGame.GameStatus.DRAW_INSUFFICIENT_MATERIAL, game.getStatus(), fen);
+        }
+        for (String fen : playable) {
+            Assertions.assertFalse(ChessBoard.fromFen(fen).isInsufficientMaterial(), fen);
+        }
+        Assertions.assertFalse(new ChessGame().getBoard().isInsufficientMaterial());
+    }
+
+    @Test
+    @DisplayName("Capturing The Last Pawn Draws By Insufficient Material")
+    public void captureLeavesInsufficientMaterial() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/3p4/4K3 w - - 0 1");
+        Assertions.assertEquals(1, game.getBoard().getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        play(game, "e1d2");
+        Assertions.assertEquals(0, game.getBoard().getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_INSUFFICIENT_MATERIAL, game.getStatus());
+
+        game.getBoard().undoMove();
+        Assertions.assertEquals(1, game.getBoard().getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        Assertions.assertFalse(game.getBoard().isInsufficientMaterial());
+    }
+
+    private static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for (String move : moves) {
+            game.makeMove(ChessMove.of(
+                    ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for reading and writing FEN.
+ */
+public class FenTests {
+
+    @Test
+    @DisplayName("Start Position")
+    public void startPosition() {
+        Assertions.assertEquals(Fen.START, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(Fen.START));
+        Assertions.assertEquals(new ChessGame().getBoard(), ChessBoard.fromFen(Fen.START));
+    }
+
+    @Test
+    @DisplayName("Written Games Parse To Equal Games")
+    public void roundTrip() {
+        Random random = new Random(17);
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 300; ply++) {
+            String fen = game.toFen();
+            ChessGame parsed = ChessGame.fromFen(fen);
+            Assertions.assertEquals(game, parsed, fen);
+            Assertions.assertEquals(fen, parsed.toFen());
+            if (!BoardStateTests.playRandomMove(game, random)) {
+                game = new ChessGame();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Bulk Import From A Buffer")
+    public void parsesLinesFromBuffer() {
+        String[] lines = {
+                Fen.START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+                "4k3/8/8/8/8/8/8/4K3 b"
+        };
+        ByteBuffer buffer = ByteBuffer.wrap(String.join("\r\n", lines).getBytes(StandardCharsets.US_ASCII));
+        List<ChessGame> games = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            games.add(Fen.parseGame(buffer));
+        }
+        Assertions.assertEquals(lines.length, games.size());
+        for (int i = 0; i < lines.length; i++) {
+            Assertions.assertEquals(ChessGame.fromFen(lines[i]), games.get(i));
+        }
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, games.get(3).getTeamTurn());
+
+        ByteBuffer out = ByteBuffer.allocate(100);
+        Fen.write(games.get(1), out);
+        Assertions.assertEquals(games.get(1).toFen(),
+                new String(out.array(), 0, out.position(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Invalid FEN Is Rejected")
+    public void rejectsInvalidFen() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KK - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1 extra"
+        };
+        for (String fen : invalid) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that factories and JSON resolve to the canonical instances.
+ */
+public class FlyweightTests {
+    private static final Gson GSON = new Gson();
+
+    @Test
+    @DisplayName("Factories Return Canonical Instances")
+    public void factoriesReturnCanonicalInstances() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                Assertions.assertSame(position, ChessPosition.of(row, col));
+                Assertions.assertEquals(new ChessPosition(row, col), position);
+                Assertions.assertEquals(new ChessPosition(row, col).hashCode(), position.hashCode());
+            }
+        }
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                Assertions.assertSame(ChessPiece.of(color, type), ChessPiece.of(color, type));
+                Assertions.assertEquals(new ChessPiece(color, type), ChessPiece.of(color, type));
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessPosition.of(0, 4));
+    }
+
+    @Test
+    @DisplayName("Generated Moves Are Canonical")
+    public void generatedMovesAreCanonical() {
+        ChessBoard board = ChessBoard.fromFen("4k3/1P6/8/8/8/8/8/R3K1N1");
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece == null) {
+                continue;
+            }
+            for (ChessMove move : piece.pieceMoves(board, Bitboards.position(square))) {
+                Assertions.assertSame(move, ChessMove.of(move.getStartPosition(), move.getEndPosition(),
+                        move.getPromotionPiece()));
+                Assertions.assertSame(move, ChessMove.of(new ChessPosition(move.getStartPosition().getRow(),
+                                move.getStartPosition().getColumn()),
+                        move.getEndPosition(), move.getPromotionPiece()));
+            }
+        }
+        ChessMove impossible = ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(2, 4), null);
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(2, 4), null), impossible);
+    }
+
+    @Test
+    @DisplayName("JSON Keeps Its Layout And Resolves To Canonical Instances")
+    public void jsonResolvesToCanonicalInstances() {
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.QUEEN);
+        String json = GSON.toJson(move);
+        Assertions.assertEquals("{\"startPosition\":{\"row\":7,\"col\":2},\"endPosition\":{\"row\":8,\"col\":2},"
+                + "\"promotionPiece\":\"QUEEN\"}", json);
+        Assertions.assertSame(move, GSON.fromJson(json, ChessMove.class));
+
+        ChessMove quiet = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        Assertions.assertEquals("{\"startPosition\":{\"row\":2,\"col\":5},\"endPosition\":{\"row\":4,\"col\":5}}",
+                GSON.toJson(quiet));
+        Assertions.assertSame(quiet, GSON.fromJson(GSON.toJson(quiet), ChessMove.class));
+
+        ChessPiece piece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"}", GSON.toJson(piece));
+        Assertions.assertSame(piece, GSON.fromJson(GSON.toJson(piece), ChessPiece.class));
+        Assertions.assertSame(ChessPosition.of(3, 6), GSON.fromJson("{\"row\":3,\"col\":6}", ChessPosition.class));
+
+        ChessGame game = GSON.fromJson(GSON.toJson(new ChessGame()), ChessGame.class);
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(ChessPosition.of(1, 5)));
+    }
+}
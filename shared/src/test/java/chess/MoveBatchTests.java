@@ -0,0 +1,167 @@
+package chess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for validating and making moves in batches.
+ */
+public class MoveBatchTests {
+    private static ForkJoinPool pool;
+    private static MoveBatch batch;
+
+    @BeforeAll
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+        batch = new MoveBatch(pool);
+    }
+
+    @AfterAll
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Statuses Of Single Moves")
+    public void statusesOfSingleMoves() {
+        ChessGame start = new ChessGame();
+        ChessGame over = new ChessGame();
+        over.setOver(true);
+        List<MoveBatch.Result> results = batch.apply(List.of(start, start, start, start, over),
+                List.of(move("e2e4"), move("e7e5"), move("e3e4"), move("e2e5"), move("e2e4")));
+
+        Assertions.assertEquals(MoveBatch.Status.APPLIED, results.get(0).status());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, results.get(0).game().getTeamTurn());
+        Assertions.assertEquals(MoveBatch.Status.WRONG_TURN, results.get(1).status());
+        Assertions.assertEquals(MoveBatch.Status.NO_PIECE, results.get(2).status());
+        Assertions.assertEquals(MoveBatch.Status.ILLEGAL, results.get(3).status());
+        Assertions.assertEquals(MoveBatch.Status.GAME_OVER, results.get(4).status());
+        Assertions.assertNull(results.get(3).game());
+        Assertions.assertEquals(new ChessGame(), start, "The batch changed a game passed in");
+    }
+
+    @Test
+    @DisplayName("Batch Agrees With makeMove")
+    public void batchAgreesWithMakeMove() {
+        Random random = new Random(11);
+        List<ChessGame> games = new ArrayList<>();
+        List<ChessMove> moves = new ArrayList<>();
+        ChessGame game = new ChessGame();
+        MoveList legal = new MoveList();
+        for (int i = 0; i < 5000; i++) {
+            legal.clear();
+            game.legalMoves(game.getTeamTurn(), legal);
+            games.add(game.fork());
+            if (!legal.isEmpty() && random.nextBoolean()) {
+                moves.add(PackedMove.toChessMove(legal.get(random.nextInt(legal.size()))));
+            } else {
+                moves.add(ChessMove.of(ChessPosition.of(random.nextInt(8) + 1, random.nextInt(8) + 1),
+                        ChessPosition.of(random.nextInt(8) + 1, random.nextInt(8) + 1), null));
+            }
+            if (!BoardStateTests.playRandomMove(game, random)) {
+                game = new ChessGame();
+            }
+        }
+
+        List<MoveBatch.Result> results = batch.apply(games, moves);
+
+        for (int i = 0; i < games.size(); i++) {
+            ChessGame expected = games.get(i).fork();
+            boolean legalMove;
+            try {
+                expected.makeMove(moves.get(i));
+                legalMove = true;
+            } catch (InvalidMoveException e) {
+                legalMove = false;
+            }
+            MoveBatch.Result result = results.get(i);
+            Assertions.assertEquals(legalMove, result.status() == MoveBatch.Status.APPLIED,
+                    moves.get(i) + " in " + games.get(i).toFen());
+            if (legalMove) {
+                Assertions.assertEquals(expected, result.game());
+                Assertions.assertEquals(expected.getHalfmoveClock(), result.game().getHalfmoveClock());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("One Game Repeated Across Workers")
+    public void oneGameRepeated() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : new String[]{"g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1"}) {
+            game.makeMove(move(move));
+        }
+        ChessGame before = game.fork();
+        List<ChessGame> games = new ArrayList<>();
+        List<ChessMove> moves = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            games.add(game);
+            moves.add(move("f6g8"));
+        }
+
+        List<MoveBatch.Result> results = batch.apply(games, moves);
+
+        for (MoveBatch.Result result : results) {
+            Assertions.assertEquals(MoveBatch.Status.APPLIED, result.status());
+            Assertions.assertEquals(ChessGame.GameStatus.DRAW_REPETITION, result.game().getStatus());
+        }
+        Assertions.assertEquals(before, game);
+        Assertions.assertArrayEquals(before.getHistory(), game.getHistory());
+    }
+
+    @Test
+    @DisplayName("Replay Stops At The First Bad Move")
+    public void replayStopsAtFirstBadMove() {
+        Random random = new Random(13);
+        List<ChessGame> starts = new ArrayList<>();
+        List<List<ChessMove>> lines = new ArrayList<>();
+        for (int g = 0; g < 100; g++) {
+            ChessGame game = new ChessGame();
+            starts.add(new ChessGame());
+            List<ChessMove> line = new ArrayList<>();
+            MoveList legal = new MoveList();
+            for (int ply = 0; ply < 60; ply++) {
+                legal.clear();
+                game.legalMoves(game.getTeamTurn(), legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                ChessMove move = PackedMove.toChessMove(legal.get(random.nextInt(legal.size())));
+                line.add(move);
+                Assertions.assertDoesNotThrow(() -> game.makeMove(move));
+            }
+            lines.add(line);
+        }
+        List<ChessMove> broken = new ArrayList<>(lines.get(7));
+        broken.add(10, broken.get(10));
+        lines.set(7, broken);
+
+        int[] played = batch.replay(starts, lines);
+
+        for (int g = 0; g < lines.size(); g++) {
+            Assertions.assertEquals(g == 7 ? 11 : lines.get(g).size(), played[g], "Line " + g);
+        }
+    }
+
+    @Test
+    @DisplayName("Mismatched Sizes Are Rejected")
+    public void mismatchedSizes() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> batch.apply(List.of(new ChessGame()), List.of()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> batch.replay(List.of(), List.of(List.of())));
+    }
+
+    private static ChessMove move(String move) {
+        return ChessMove.of(ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null);
+    }
+}
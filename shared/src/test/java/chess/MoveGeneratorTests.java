@@ -0,0 +1,152 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Differential tests comparing the table driven generator against the
+ * original square-walking generators.
+ */
+public class MoveGeneratorTests {
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    @Test
+    @DisplayName("Magic Slider Attacks Match Ray Walking")
+    public void magicAttacksMatchReference() {
+        Random random = new Random(240);
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < 200; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                Assertions.assertEquals(Attacks.rookReference(square, occupied), Attacks.rook(square, occupied));
+                Assertions.assertEquals(Attacks.bishopReference(square, occupied), Attacks.bishop(square, occupied));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Piece Moves Match Reference Generators")
+    public void pieceMovesMatchReference() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            ChessBoard board = randomBoard(random);
+            for (int square = 0; square < 64; square++) {
+                ChessPiece piece = board.getPiece(square);
+                if (piece == null) {
+                    continue;
+                }
+                ChessPosition position = Bitboards.position(square);
+                Assertions.assertEquals(
+                        new HashSet<>(reference(piece.getPieceType()).pieceMoves(board, position)),
+                        new HashSet<>(piece.pieceMoves(board, position)),
+                        "Moves differ for " + piece.getPieceType() + " at " + position);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Square Attacks Match Every Piece's Attacks")
+    public void squareAttackedMatchesPieceAttacks() {
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            ChessBoard board = randomBoard(random);
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                long attacked = 0L;
+                for (long own = board.getTeamPieces(color); own != 0; own &= own - 1) {
+                    int square = Bitboards.first(own);
+                    attacked |= MoveGenerator.attacks(board.getOccupied(), square, board.getPiece(square));
+                }
+                for (int square = 0; square < 64; square++) {
+                    Assertions.assertEquals((attacked & (1L << square)) != 0, board.isSquareAttacked(square, color));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Legal Generator Matches Make/Unmake Filtering")
+    public void legalMovesMatchFilteredPseudoLegal() {
+        Random random = new Random(19);
+        for (int i = 0; i < 2000; i++) {
+            ChessBoard board = randomBoard(random);
+            placeKings(board, random);
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                MoveList legal = new MoveList();
+                MoveGenerator.generateLegal(board, color, legal);
+                Assertions.assertEquals(filteredPseudoLegal(board, color), sorted(legal));
+            }
+        }
+    }
+
+    private static List<Integer> filteredPseudoLegal(ChessBoard board, ChessGame.TeamColor color) {
+        MoveList pseudo = new MoveList();
+        MoveGenerator.generate(board, color, pseudo);
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < pseudo.size(); i++) {
+            board.doMove(pseudo.get(i));
+            int king = board.getKingSquare(color);
+            if (!board.isSquareAttacked(king, ChessGame.opponent(color))) {
+                result.add(pseudo.get(i));
+            }
+            board.undoMove();
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static List<Integer> sorted(MoveList moves) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            result.add(moves.get(i));
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static void placeKings(ChessBoard board, Random random) {
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
+                board.addPiece(square, null);
+            }
+        }
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int square;
+            do {
+                square = random.nextInt(64);
+            } while (board.getPiece(square) != null);
+            board.addPiece(square, new ChessPiece(color, ChessPiece.PieceType.KING));
+        }
+    }
+
+    private static PieceMoves reference(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> new KingMoves();
+            case QUEEN -> new QueenMoves();
+            case BISHOP -> new BishopMoves();
+            case KNIGHT -> new KnightMoves();
+            case ROOK -> new RookMoves();
+            case PAWN -> new PawnMoves();
+        };
+    }
+
+    private static ChessBoard randomBoard(Random random) {
+        ChessBoard board = new ChessBoard();
+        int count = 4 + random.nextInt(24);
+        for (int i = 0; i < count; i++) {
+            ChessPiece.PieceType type = TYPES[random.nextInt(TYPES.length)];
+            int row = type == ChessPiece.PieceType.PAWN ? 2 + random.nextInt(6) : 1 + random.nextInt(8);
+            ChessGame.TeamColor color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            if (type == ChessPiece.PieceType.PAWN && color == ChessGame.TeamColor.BLACK) {
+                row = 9 - row;
+            }
+            board.addPiece(new ChessPosition(row, 1 + random.nextInt(8)), new ChessPiece(color, type));
+        }
+        return board;
+    }
+}
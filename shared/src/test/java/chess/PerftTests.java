@@ -0,0 +1,55 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the legal move generator against published perft counts.
+ */
+public class PerftTests {
+
+    @Test
+    @DisplayName("Perft From Starting Position")
+    public void startingPosition() {
+        Perft perft = new Perft();
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(20, perft.count(game, 1));
+        Assertions.assertEquals(400, perft.count(game, 2));
+        Assertions.assertEquals(8902, perft.count(game, 3));
+        Assertions.assertEquals(197281, perft.count(game, 4));
+    }
+
+    @Test
+    @DisplayName("Perft With Castling, En Passant And Promotions")
+    public void kiwipete() {
+        Perft perft = new Perft();
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals(48, perft.count(game, 1));
+        Assertions.assertEquals(2039, perft.count(game, 2));
+        Assertions.assertEquals(97862, perft.count(game, 3));
+    }
+
+    @Test
+    @DisplayName("Perft With Discovered Checks Through En Passant")
+    public void enPassantPins() {
+        Perft perft = new Perft();
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        Assertions.assertEquals(14, perft.count(game, 1));
+        Assertions.assertEquals(191, perft.count(game, 2));
+        Assertions.assertEquals(2812, perft.count(game, 3));
+        Assertions.assertEquals(43238, perft.count(game, 4));
+        Assertions.assertEquals(674624, perft.count(game, 5));
+    }
+
+    @Test
+    @DisplayName("Perft With Castling Through Check")
+    public void castlingThroughCheck() {
+        Perft perft = new Perft();
+        ChessGame game = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        Assertions.assertEquals(6, perft.count(game, 1));
+        Assertions.assertEquals(264, perft.count(game, 2));
+        Assertions.assertEquals(9467, perft.count(game, 3));
+        Assertions.assertEquals(422333, perft.count(game, 4));
+    }
+}
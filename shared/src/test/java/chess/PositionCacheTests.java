@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PositionCacheTests {
+    private static final PositionCache.Entry ENTRY =
+            new PositionCache.Entry(new int[]{PackedMove.of(12, 28)}, ChessGame.GameStatus.NORMAL);
+
+    @Test
+    @DisplayName("Hit After Put")
+    public void hitAfterPut() {
+        PositionCache cache = new PositionCache(1024);
+        Assertions.assertNull(cache.get(42L, 7L));
+        cache.put(42L, 7L, ENTRY);
+        Assertions.assertSame(ENTRY, cache.get(42L, 7L));
+        Assertions.assertNull(cache.get(42L, 8L), "Occupancy must match as well as the key");
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Bounded With Second Chance Eviction")
+    public void boundedWithSecondChance() {
+        PositionCache cache = new PositionCache(256);
+        int buckets = cache.capacity() / PositionCache.WAYS;
+        // every key below lands in bucket 0
+        for (long i = 0; i < PositionCache.WAYS; i++) {
+            cache.put(i * buckets, 0L, ENTRY);
+        }
+        Assertions.assertNotNull(cache.get(0L, 0L));
+        cache.put((long) PositionCache.WAYS * buckets, 0L, ENTRY);
+
+        Assertions.assertNotNull(cache.get(0L, 0L), "Recently used entry was evicted");
+        Assertions.assertNull(cache.get(buckets, 0L), "Unused entry should have been evicted");
+        Assertions.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Game Queries Use Shared Cache")
+    public void gameQueriesUseSharedCache() throws InvalidMoveException {
+        PositionCache cache = PositionCache.shared();
+        ChessGame game = new ChessGame();
+        game.validMoves(new ChessPosition(2, 5));
+        long hits = cache.getHits();
+        game.getStatus();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertTrue(cache.getHits() >= hits + 2);
+    }
+
+    @Test
+    @DisplayName("Status Alone Does Not Fill The Cache")
+    public void statusDoesNotFillCache() {
+        PositionCache cache = PositionCache.shared();
+        ChessGame game = ChessGame.fromFen("6k1/8/8/3q4/8/8/1B6/K7 b - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        Assertions.assertNull(cache.get(game.getPositionKey(), game.getBoard().getOccupied()));
+
+        game.validMoves(new ChessPosition(5, 4));
+        Assertions.assertNotNull(cache.get(game.getPositionKey(), game.getBoard().getOccupied()));
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+    }
+}
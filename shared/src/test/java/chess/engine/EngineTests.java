@@ -0,0 +1,133 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the alpha-beta search.
+ */
+public class EngineTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void findsMateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Engine().bestMove(game, SearchLimits.depth(4));
+        Assertions.assertEquals(move("a1a8"), result.move());
+        Assertions.assertEquals(1, result.mateIn());
+        Assertions.assertEquals(Engine.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two")
+    public void findsMateInTwo() {
+        ChessGame game = ChessGame.fromFen("k7/8/2K5/8/8/8/8/1R6 w - - 0 1");
+        SearchResult result = new Engine().bestMove(game, SearchLimits.depth(5));
+        Assertions.assertEquals(2, result.mateIn());
+        Assertions.assertTrue(result.principalVariation().size() >= 3, "Line should reach the mate");
+        Assertions.assertEquals(result.move(), result.principalVariation().get(0));
+    }
+
+    @Test
+    @DisplayName("Takes A Hanging Queen")
+    public void takesHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Engine().bestMove(game, SearchLimits.depth(3));
+        Assertions.assertEquals(move("d2d5"), result.move());
+        Assertions.assertTrue(result.score() > 300, "Winning a queen for nothing: " + result.score());
+    }
+
+    @Test
+    @DisplayName("Positions Without Moves")
+    public void positionsWithoutMoves() {
+        Engine engine = new Engine();
+        SearchResult mated = engine.bestMove(ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertNull(mated.move());
+        Assertions.assertEquals(-Engine.MATE, mated.score());
+
+        SearchResult stalemate = engine.bestMove(ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertNull(stalemate.move());
+        Assertions.assertEquals(0, stalemate.score());
+    }
+
+    @Test
+    @DisplayName("Search Respects Its Limits")
+    public void respectsLimits() {
+        Engine engine = new Engine();
+        ChessGame game = new ChessGame();
+        SearchResult byDepth = engine.bestMove(game, SearchLimits.depth(3));
+        Assertions.assertEquals(3, byDepth.depth());
+        Assertions.assertNotNull(byDepth.move());
+
+        SearchResult byNodes = engine.bestMove(game, SearchLimits.nodes(5_000));
+        Assertions.assertTrue(byNodes.nodes() <= 5_000, "Visited " + byNodes.nodes() + " nodes");
+        Assertions.assertNotNull(byNodes.move());
+
+        SearchResult byTime = engine.bestMove(game, SearchLimits.time(50));
+        Assertions.assertTrue(byTime.millis() < 1_000, "Took " + byTime.millis() + " ms");
+        Assertions.assertTrue(byTime.depth() >= 1);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SearchLimits.nodes(0));
+    }
+
+    @Test
+    @DisplayName("Search Leaves The Game Unchanged")
+    public void leavesGameUnchanged() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String fen = game.toFen();
+        long key = game.getPositionKey();
+        new Engine().bestMove(game, SearchLimits.depth(3));
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(key, game.getPositionKey());
+    }
+
+    @Test
+    @DisplayName("Helper Threads Share The Search")
+    public void helperThreads() {
+        try (Engine engine = new Engine(4, 3)) {
+            Assertions.assertEquals(3, engine.threads());
+            ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+            SearchResult result = engine.bestMove(game, SearchLimits.depth(5));
+            Assertions.assertEquals(move("d2d5"), result.move());
+            Assertions.assertEquals(3, result.threadNodes().size());
+            Assertions.assertEquals(result.nodes(), result.threadNodes().stream().mapToLong(Long::longValue).sum());
+
+            SearchResult mate = engine.bestMove(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                    SearchLimits.depth(6));
+            Assertions.assertEquals(move("a1a8"), mate.move());
+            Assertions.assertEquals(1, mate.mateIn());
+        }
+    }
+
+    @Test
+    @DisplayName("Stop Ends A Search Early")
+    public void stopEndsSearch() throws Exception {
+        try (Engine engine = new Engine(4, 2)) {
+            Thread stopper = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                engine.stop();
+            });
+            stopper.start();
+            SearchResult result = engine.bestMove(new ChessGame(), SearchLimits.depth(SearchLimits.MAX_DEPTH));
+            stopper.join();
+            Assertions.assertNotNull(result.move());
+            Assertions.assertTrue(result.depth() < SearchLimits.MAX_DEPTH);
+        }
+    }
+
+    private static ChessMove move(String move) {
+        return ChessMove.of(ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null);
+    }
+}
@@ -0,0 +1,107 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Tests that the incrementally updated evaluators match a full rebuild.
+ */
+public class EvaluatorTests {
+
+    @Test
+    @DisplayName("Piece-Square Evaluation Follows Moves")
+    public void pieceSquareFollowsMoves() {
+        checkIncremental(PieceSquareEvaluator::new);
+    }
+
+    @Test
+    @DisplayName("Network Accumulators Follow Moves")
+    public void networkFollowsMoves() {
+        NnueEvaluator.Network network = NnueEvaluator.Network.random(32, 7);
+        checkIncremental(() -> new NnueEvaluator(network));
+    }
+
+    @Test
+    @DisplayName("Evaluation Is Symmetric")
+    public void evaluationIsSymmetric() {
+        ChessBoard start = new ChessGame().getBoard();
+        Evaluator pieceSquare = new PieceSquareEvaluator();
+        pieceSquare.reset(start);
+        Assertions.assertEquals(0, pieceSquare.evaluate(ChessGame.TeamColor.WHITE));
+
+        Evaluator network = new NnueEvaluator(NnueEvaluator.Network.random(16, 3));
+        network.reset(start);
+        Assertions.assertEquals(network.evaluate(ChessGame.TeamColor.WHITE),
+                network.evaluate(ChessGame.TeamColor.BLACK));
+
+        ChessBoard upAQueen = ChessGame.fromFen("3qk3/8/8/8/8/8/8/4K3 w - - 0 1").getBoard();
+        pieceSquare.reset(upAQueen);
+        Assertions.assertTrue(pieceSquare.evaluate(ChessGame.TeamColor.BLACK) > 800);
+        Assertions.assertEquals(-pieceSquare.evaluate(ChessGame.TeamColor.BLACK),
+                pieceSquare.evaluate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Networks Survive Writing And Reading")
+    public void networkRoundTrip() throws IOException {
+        NnueEvaluator.Network network = NnueEvaluator.Network.random(8, 11);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        network.write(out);
+        byte[] data = out.toByteArray();
+        Assertions.assertEquals(network, NnueEvaluator.Network.read(new ByteArrayInputStream(data)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> NnueEvaluator.Network.read(new ByteArrayInputStream(data, 0, data.length - 2)));
+    }
+
+    @Test
+    @DisplayName("Engine Searches With A Network")
+    public void engineUsesNetwork() {
+        NnueEvaluator.Network network = NnueEvaluator.Network.random(16, 5);
+        try (Engine engine = new Engine(1, 2, () -> new NnueEvaluator(network))) {
+            SearchResult result = engine.bestMove(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                    SearchLimits.depth(3));
+            Assertions.assertEquals(1, result.mateIn());
+        }
+    }
+
+    private static void checkIncremental(Supplier<Evaluator> evaluators) {
+        Random random = new Random(17);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 20; game++) {
+            ChessBoard board = new ChessGame().getBoard();
+            Evaluator incremental = evaluators.get();
+            incremental.reset(board);
+            board.setPieceListener(incremental);
+            Evaluator rebuilt = evaluators.get();
+            ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+            int played = 0;
+            for (; played < 120; played++) {
+                moves.clear();
+                MoveGenerator.generateLegal(board, turn, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.doMove(moves.get(random.nextInt(moves.size())));
+                turn = ChessGame.opponent(turn);
+                rebuilt.reset(board);
+                Assertions.assertEquals(rebuilt.evaluate(turn), incremental.evaluate(turn));
+            }
+            for (; played > 0; played--) {
+                board.undoMove();
+            }
+            rebuilt.reset(board);
+            Assertions.assertEquals(rebuilt.evaluate(turn), incremental.evaluate(turn));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for building and reading opening books.
+ */
+public class OpeningBookTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Book Weights Moves By Games")
+    public void weightsMovesByGames() throws Exception {
+        BookBuilder builder = new BookBuilder(4);
+        builder.addGame("e2e4 e7e5 g1f3 b8c6");
+        builder.addGame("e2e4 c7c5");
+        builder.addGame("d2d4 d7d5");
+        OpeningBook book = write(builder);
+
+        Assertions.assertEquals(builder.entries(), book.size());
+        List<OpeningBook.BookMove> moves = book.moves(new ChessGame());
+        Assertions.assertEquals(List.of(new OpeningBook.BookMove(move("e2e4"), 2),
+                new OpeningBook.BookMove(move("d2d4"), 1)), moves);
+
+        ChessGame afterE4 = new ChessGame();
+        afterE4.makeMove(move("e2e4"));
+        Assertions.assertEquals(2, book.moves(afterE4).size());
+        Assertions.assertEquals(List.of(), book.moves(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Book Stops At Max Ply")
+    public void stopsAtMaxPly() throws Exception {
+        BookBuilder builder = new BookBuilder(2);
+        builder.addGame("e2e4 e7e5 g1f3 b8c6");
+        OpeningBook book = write(builder);
+
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2e4"));
+        game.makeMove(move("e7e5"));
+        Assertions.assertEquals(2, book.size());
+        Assertions.assertNull(book.pick(game, new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Castling And Promotion Survive The Book")
+    public void castlingAndPromotion() throws Exception {
+        BookBuilder builder = new BookBuilder(40);
+        builder.addGame("e2e4 e7e5 g1f3 b8c6 f1c4 g8f6 e1g1 f8c5");
+        builder.addGame("a2a4 b7b5 a4b5 a7a6 b5a6 c8b7 a6b7 h7h6 b7a8n");
+        OpeningBook book = write(builder);
+
+        ChessGame game = new ChessGame();
+        for (String move : "e2e4 e7e5 g1f3 b8c6 f1c4 g8f6".split(" ")) {
+            game.makeMove(move(move));
+        }
+        Assertions.assertEquals(move("e1g1"), book.pick(game, new Random(2)));
+
+        game = new ChessGame();
+        for (String move : "a2a4 b7b5 a4b5 a7a6 b5a6 c8b7 a6b7 h7h6".split(" ")) {
+            game.makeMove(move(move));
+        }
+        Assertions.assertEquals(ChessMove.of(ChessPosition.of(7, 2), ChessPosition.of(8, 1),
+                ChessPiece.PieceType.KNIGHT), book.pick(game, new Random(3)));
+    }
+
+    @Test
+    @DisplayName("Engine Plays Book Moves Without Searching")
+    public void enginePlaysBookMoves() throws Exception {
+        BookBuilder builder = new BookBuilder(4);
+        builder.addGame("e2e4 e7e5 g1f3");
+        builder.addGame("e2e4 c7c5");
+        builder.addGame("d2d4 d7d5");
+        try (Engine engine = new Engine(1)) {
+            engine.setOpeningBook(write(builder));
+            SearchResult result = engine.bestMove(new ChessGame(), SearchLimits.depth(6));
+            Assertions.assertEquals(move("e2e4"), result.move());
+            Assertions.assertEquals(0L, result.nodes());
+            Assertions.assertEquals(0, result.depth());
+
+            SearchResult outOfBook = engine.bestMove(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                    SearchLimits.depth(2));
+            Assertions.assertEquals(move("a1a8"), outOfBook.move());
+            Assertions.assertTrue(outOfBook.nodes() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Every Recorded Position Is Found")
+    public void findsEveryPosition() throws Exception {
+        Random random = new Random(19);
+        BookBuilder builder = new BookBuilder(12);
+        List<List<ChessMove>> games = new ArrayList<>();
+        MoveList legal = new MoveList();
+        for (int i = 0; i < 300; i++) {
+            ChessGame game = new ChessGame();
+            List<ChessMove> moves = new ArrayList<>();
+            for (int ply = 0; ply < 12; ply++) {
+                legal.clear();
+                game.legalMoves(game.getTeamTurn(), legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                ChessMove move = PackedMove.toChessMove(legal.get(random.nextInt(legal.size())));
+                moves.add(move);
+                game.makeMove(move);
+            }
+            games.add(moves);
+            builder.addGame(moves);
+        }
+        OpeningBook book = write(builder);
+
+        for (List<ChessMove> moves : games) {
+            ChessGame game = new ChessGame();
+            for (ChessMove move : moves) {
+                Assertions.assertTrue(book.moves(game).stream().anyMatch(entry -> entry.move().equals(move)),
+                        "Book should have " + move);
+                game.makeMove(move);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Bad Games And Files Are Rejected")
+    public void rejectsBadInput() throws IOException {
+        BookBuilder builder = new BookBuilder(10);
+        Assertions.assertThrows(InvalidMoveException.class, () -> builder.addGame("e2e5"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.addGame("e2e4 castle"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BookBuilder(0));
+
+        Path file = directory.resolve("truncated.bin");
+        Files.write(file, new byte[17]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(file));
+    }
+
+    private OpeningBook write(BookBuilder builder) throws IOException {
+        Path file = directory.resolve("book.bin");
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    private static ChessMove move(String move) {
+        return ChessMove.of(ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null);
+    }
+}
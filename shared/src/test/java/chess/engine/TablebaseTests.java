@@ -0,0 +1,161 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for generating and probing endgame tables.
+ */
+public class TablebaseTests {
+    private static TablebaseGenerator generator;
+    private static Tablebase tablebase;
+
+    @TempDir
+    static Path directory;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        generator = new TablebaseGenerator(ForkJoinPool.commonPool());
+        generator.write(directory);
+        tablebase = Tablebase.open(directory);
+    }
+
+    @Test
+    @DisplayName("Mates And Stalemates Are Scored")
+    public void matesAndStalemates() {
+        Assertions.assertEquals(Engine.MATE - 1,
+                tablebase.probe(ChessGame.fromFen("6k1/8/6K1/8/8/8/8/Q7 w - - 0 1")));
+        Assertions.assertEquals(-Engine.MATE,
+                tablebase.probe(ChessGame.fromFen("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1")));
+        Assertions.assertEquals(0, tablebase.probe(ChessGame.fromFen("k7/8/1QK5/8/8/8/8/8 b - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Longest Mates Match Known Values")
+    public void longestMates() {
+        // 10 moves for the queen and 16 for the rook, with the winning side to move
+        Assertions.assertEquals(2 * 10, longest(generator.generate(Tablebase.Endgame.KQK)));
+        Assertions.assertEquals(2 * 16, longest(generator.generate(Tablebase.Endgame.KRK)));
+    }
+
+    @Test
+    @DisplayName("Pawn Endgames Win And Draw")
+    public void pawnEndgames() {
+        Assertions.assertTrue(tablebase.probe(ChessGame.fromFen("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")) > 0);
+        Assertions.assertTrue(tablebase.probe(ChessGame.fromFen("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")) < 0);
+        Assertions.assertEquals(0, tablebase.probe(ChessGame.fromFen("k7/8/K7/P7/8/8/8/8 w - - 0 1")));
+        // the same win with the colors swapped
+        Assertions.assertEquals(tablebase.probe(ChessGame.fromFen("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")),
+                tablebase.probe(ChessGame.fromFen("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Positions Outside The Tables Are Unknown")
+    public void unknownPositions() {
+        Assertions.assertEquals(Tablebase.UNKNOWN, tablebase.probe(new ChessGame()));
+        Assertions.assertEquals(Tablebase.UNKNOWN,
+                tablebase.probe(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1")));
+        Assertions.assertEquals(Tablebase.UNKNOWN,
+                tablebase.probe(ChessGame.fromFen("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Every Score Follows From The Best Move")
+    public void scoresAreConsistent() {
+        Random random = new Random(23);
+        MoveList moves = new MoveList();
+        ChessPiece.PieceType[] types = {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+                ChessPiece.PieceType.PAWN};
+        int checked = 0;
+        while (checked < 2000) {
+            ChessBoard board = new ChessBoard();
+            ChessGame.TeamColor strong = random.nextBoolean()
+                    ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            int[] squares = {random.nextInt(64), random.nextInt(64), random.nextInt(8, 56)};
+            if (squares[0] == squares[1] || squares[0] == squares[2] || squares[1] == squares[2]) {
+                continue;
+            }
+            board.addPiece(squares[0], ChessPiece.of(strong, ChessPiece.PieceType.KING));
+            board.addPiece(squares[1], ChessPiece.of(ChessGame.opponent(strong), ChessPiece.PieceType.KING));
+            board.addPiece(squares[2], ChessPiece.of(strong, types[random.nextInt(types.length)]));
+            ChessGame.TeamColor turn = random.nextBoolean()
+                    ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessGame.TeamColor waiting = ChessGame.opponent(turn);
+            if (board.isSquareAttacked(board.getKingSquare(waiting), turn)) {
+                continue;
+            }
+            moves.clear();
+            MoveGenerator.generateLegal(board, turn, moves);
+            int best = board.isSquareAttacked(board.getKingSquare(turn), waiting) ? -Engine.MATE : 0;
+            if (!moves.isEmpty()) {
+                best = -Engine.MATE;
+                for (int i = 0; i < moves.size(); i++) {
+                    board.doMove(moves.get(i));
+                    int score = tablebase.probe(board, waiting);
+                    board.undoMove();
+                    // captures and minor promotions leave a drawn ending
+                    score = score == Tablebase.UNKNOWN ? 0 : -score;
+                    best = Math.max(best, score > 0 ? score - 1 : score < 0 ? score + 1 : 0);
+                }
+            }
+            Assertions.assertEquals(best, tablebase.probe(board, turn), board.toFen());
+            checked++;
+        }
+    }
+
+    @Test
+    @DisplayName("Engine Plays From The Tables")
+    public void engineUsesTables() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        try (Engine engine = new Engine(1)) {
+            engine.setTablebase(tablebase);
+            SearchResult result = engine.bestMove(game, SearchLimits.depth(2));
+            Assertions.assertEquals(tablebase.probe(game), result.score());
+            Assertions.assertTrue(result.mateIn() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Table Positions Return Without A Deep Search")
+    public void tablePositionsReturnAtOnce() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        try (Engine engine = new Engine(1)) {
+            engine.setTablebase(tablebase);
+            SearchResult result = engine.bestMove(game, SearchLimits.depth(SearchLimits.MAX_DEPTH));
+            Assertions.assertEquals(1, result.depth());
+            Assertions.assertTrue(result.nodes() < 100, "Visited " + result.nodes() + " positions");
+            Assertions.assertEquals(tablebase.probe(game), result.score());
+        }
+    }
+
+    @Test
+    @DisplayName("Tables Of The Wrong Size Are Rejected")
+    public void rejectsBadTables(@TempDir Path other) throws IOException {
+        Files.write(other.resolve(Tablebase.Endgame.KRK.fileName()), new byte[100]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Tablebase.open(other));
+        Assertions.assertFalse(Tablebase.open(other.resolve("missing")).has(Tablebase.Endgame.KQK));
+    }
+
+    private static int longest(byte[] table) {
+        int longest = 0;
+        // the first half of a table has the stronger side to move
+        for (int i = 0; i < table.length / 2; i++) {
+            longest = Math.max(longest, table[i] & 0xFF);
+        }
+        return longest;
+    }
+}